@@ -0,0 +1,252 @@
+package com.pizzaflow.inventory.availability;
+
+import com.pizzaflow.inventory.domain.InventoryItem;
+import com.pizzaflow.inventory.dto.AvailabilityResponse;
+import com.pizzaflow.inventory.dto.ProductAvailability;
+import com.pizzaflow.inventory.repository.InventoryItemRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Versioned in-memory copy of product availability for storefront polling.
+ * Loaded once on startup and then kept current from the stock changes
+ * {@code InventoryService} makes, applied after their transaction commits.
+ * Every change bumps the version and is remembered in a bounded change log,
+ * so clients can fetch only what changed since the version they hold.
+ * Versions are only meaningful within one process: they are handed out as
+ * {@code <epoch>-<sequence>} with an epoch drawn at startup, and a version
+ * of another epoch (a restart or another replica) gets the full snapshot.
+ *
+ * Changes made by other inventory-service instances are not seen directly;
+ * every instance reconciles with inventory_item every
+ * {@code inventory.availability.resync-interval-ms} (5s by default), which
+ * bounds how stale another instance's reservations can be. Clients that poll
+ * for changes should stick to one instance; a poll that lands on another
+ * instance gets that instance's full snapshot.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AvailabilitySnapshot {
+
+    private static final int MAX_CHANGES = 10_000;
+
+    private final InventoryItemRepository inventoryItemRepository;
+
+    private final Map<String, ProductAvailability> byProduct = new TreeMap<>();
+    private final Map<Long, String> productByItem = new HashMap<>();
+    // Sequence of the last change per product
+    private final Map<String, Long> changedAt = new HashMap<>();
+    private final Deque<Change> changes = new ArrayDeque<>();
+    private final String epoch = UUID.randomUUID().toString().substring(0, 8);
+    private long version;
+    private long horizon;
+    private AvailabilityResponse fullView;
+
+    @PostConstruct
+    void load() {
+        resync();
+        log.info("Availability snapshot loaded with {} products at version {}", byProduct.size(), version);
+    }
+
+    /**
+     * Reconciles the snapshot with inventory_item. Only products whose
+     * availability actually differs produce a change. The table is read
+     * without holding the snapshot lock; products adjusted while it was read
+     * keep their adjusted value and are reconciled by the next resync.
+     */
+    @Scheduled(fixedDelayString = "${inventory.availability.resync-interval-ms:5000}",
+            initialDelayString = "${inventory.availability.resync-interval-ms:5000}")
+    public void resync() {
+        long readFrom = version();
+        List<InventoryItem> items = inventoryItemRepository.findAll();
+        synchronized (this) {
+            for (InventoryItem item : items) {
+                if (changedAt.getOrDefault(item.getProductId(), 0L) <= readFrom) {
+                    put(item.getId(), item.getProductId(), item.getProductName(), item.getAvailableQuantity());
+                }
+            }
+        }
+    }
+
+    /**
+     * Reconciles with inventory_item once the caller's transaction commits,
+     * for changes that were made in bulk.
+     */
+    public void resyncAfterCommit() {
+        afterCommit(this::resync);
+    }
+
+    public synchronized long version() {
+        return version;
+    }
+
+    public synchronized AvailabilityResponse full() {
+        if (fullView == null) {
+            fullView = AvailabilityResponse.builder()
+                    .version(token(version))
+                    .full(true)
+                    .items(List.copyOf(byProduct.values()))
+                    .build();
+        }
+        return fullView;
+    }
+
+    /**
+     * Returns the products that changed after the given version, the full
+     * snapshot if that version is malformed, of another epoch or too old, or
+     * null if nothing changed.
+     */
+    public synchronized AvailabilityResponse changesSince(String sinceVersion) {
+        long since = sequenceOf(sinceVersion);
+        if (since < 0) {
+            return full();
+        }
+        if (since == version) {
+            return null;
+        }
+        if (since > version || since < horizon) {
+            return full();
+        }
+
+        Set<String> changed = new LinkedHashSet<>();
+        Iterator<Change> newestFirst = changes.descendingIterator();
+        while (newestFirst.hasNext()) {
+            Change change = newestFirst.next();
+            if (change.version() <= since) {
+                break;
+            }
+            changed.add(change.productId());
+        }
+        return AvailabilityResponse.builder()
+                .version(token(version))
+                .full(false)
+                .items(changed.stream().map(byProduct::get).toList())
+                .build();
+    }
+
+    /**
+     * Adds a newly created item once the caller's transaction commits.
+     */
+    public void addAfterCommit(InventoryItem item) {
+        Long itemId = item.getId();
+        String productId = item.getProductId();
+        String productName = item.getProductName();
+        int available = item.getAvailableQuantity();
+        afterCommit(() -> put(itemId, productId, productName, available));
+    }
+
+    /**
+     * Applies availability changes keyed by productId once the caller's
+     * transaction commits; negative for reservations, positive for releases.
+     */
+    public void adjustProductsAfterCommit(Map<String, Integer> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        Map<String, Integer> copy = Map.copyOf(deltas);
+        afterCommit(() -> copy.forEach(this::adjust));
+    }
+
+    /**
+     * Same as {@link #adjustProductsAfterCommit}, keyed by inventory item id.
+     */
+    public void adjustItemsAfterCommit(Map<Long, Integer> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        Map<Long, Integer> copy = Map.copyOf(deltas);
+        afterCommit(() -> copy.forEach((itemId, delta) -> {
+            String productId = productByItem.get(itemId);
+            if (productId != null) {
+                adjust(productId, delta);
+            }
+        }));
+    }
+
+    private synchronized void adjust(String productId, int delta) {
+        ProductAvailability current = byProduct.get(productId);
+        if (current != null && delta != 0) {
+            record(productId, ProductAvailability.builder()
+                    .productId(productId)
+                    .productName(current.getProductName())
+                    .availableQuantity(current.getAvailableQuantity() + delta)
+                    .build());
+        }
+    }
+
+    private synchronized void put(Long itemId, String productId, String productName, int available) {
+        productByItem.put(itemId, productId);
+        ProductAvailability current = byProduct.get(productId);
+        if (current == null || current.getAvailableQuantity() != available
+                || !current.getProductName().equals(productName)) {
+            record(productId, ProductAvailability.builder()
+                    .productId(productId)
+                    .productName(productName)
+                    .availableQuantity(available)
+                    .build());
+        }
+    }
+
+    private void record(String productId, ProductAvailability availability) {
+        byProduct.put(productId, availability);
+        changes.addLast(new Change(++version, productId));
+        changedAt.put(productId, version);
+        if (changes.size() > MAX_CHANGES) {
+            horizon = changes.removeFirst().version();
+        }
+        fullView = null;
+    }
+
+    private String token(long sequence) {
+        return epoch + "-" + sequence;
+    }
+
+    /**
+     * @return the sequence of a version of this epoch, or -1 if the version
+     * is malformed or was handed out by another process
+     */
+    private long sequenceOf(String token) {
+        int dash = token.lastIndexOf('-');
+        if (dash < 0 || !token.substring(0, dash).equals(epoch)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(token.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private record Change(long version, String productId) {
+    }
+}
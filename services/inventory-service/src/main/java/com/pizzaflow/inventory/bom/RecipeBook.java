@@ -0,0 +1,76 @@
+package com.pizzaflow.inventory.bom;
+
+import com.pizzaflow.inventory.repository.RecipeRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Expands ordered catalog products into the stock items they consume.
+ * Recipes are compiled into an immutable {@link RecipeTable} that is swapped
+ * atomically whenever recipe_book_version moves, either because a recipe was
+ * changed through this instance or because the periodic check saw a change
+ * made elsewhere. Readers never lock and never see a half-built table.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RecipeBook {
+
+    private final RecipeRepository recipeRepository;
+
+    private volatile RecipeTable table = RecipeTable.compile(List.of());
+    private volatile long version = -1;
+
+    @PostConstruct
+    void load() {
+        refresh();
+    }
+
+    /**
+     * @param productQuantities productId -> ordered quantity
+     * @return stockItemId -> quantity, sorted by stockItemId
+     * @throws IllegalArgumentException if a stock quantity of the order overflows
+     */
+    public List<Map.Entry<String, Integer>> expand(Map<String, Integer> productQuantities) {
+        try {
+            return table.expand(productQuantities);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Ordered quantities are too large", e);
+        }
+    }
+
+    /**
+     * Checks that the given recipes compile, e.g. before a change commits.
+     *
+     * @throws IllegalArgumentException if the recipes form a cycle or a
+     *                                  flattened quantity overflows
+     */
+    public void verify(List<RecipeRepository.RecipeLine> lines) {
+        try {
+            RecipeTable.compile(lines);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Recipe quantities are too large", e);
+        }
+    }
+
+    /**
+     * Recompiles the table if the recipes changed since it was built.
+     */
+    @Scheduled(fixedDelayString = "${inventory.recipes.refresh-interval-ms:30000}")
+    public synchronized void refresh() {
+        long current = recipeRepository.version();
+        if (current == version) {
+            return;
+        }
+        RecipeTable compiled = RecipeTable.compile(recipeRepository.findAll());
+        table = compiled;
+        version = current;
+        log.info("Compiled {} recipes at recipe book version {}", compiled.size(), current);
+    }
+}
@@ -0,0 +1,209 @@
+package com.pizzaflow.inventory.bom;
+
+import com.pizzaflow.inventory.repository.RecipeRepository.RecipeLine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Immutable, precompiled recipe table. Stock item IDs are numbered in sorted
+ * order and every recipe is stored as two parallel int arrays, so expanding
+ * an order is a few array walks over a per-thread scratch buffer instead of
+ * map merges. The result comes out already sorted by stock item ID, which is
+ * the row lock order the reservation path needs.
+ *
+ * Nested recipes (an ingredient that has a recipe of its own) are flattened
+ * at compile time, so every recipe points straight at the stock items it
+ * finally consumes and expanding never recurses.
+ */
+final class RecipeTable {
+
+    private final String[] stockIds;
+    private final Map<String, Integer> stockIndex;
+    private final Map<String, Recipe> recipes;
+    private final ThreadLocal<Scratch> scratch;
+
+    private RecipeTable(String[] stockIds, Map<String, Integer> stockIndex, Map<String, Recipe> recipes) {
+        this.stockIds = stockIds;
+        this.stockIndex = stockIndex;
+        this.recipes = recipes;
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(stockIds.length));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the recipes form a cycle
+     * @throws ArithmeticException      if a flattened quantity overflows
+     */
+    static RecipeTable compile(List<RecipeLine> lines) {
+        Map<String, List<RecipeLine>> byProduct = new HashMap<>();
+        lines.forEach(line -> byProduct.computeIfAbsent(line.productId(), id -> new ArrayList<>()).add(line));
+
+        Map<String, Map<String, Integer>> flattened = new HashMap<>();
+        byProduct.keySet().forEach(productId -> flatten(productId, byProduct, flattened, new LinkedHashSet<>()));
+
+        TreeSet<String> ingredientIds = new TreeSet<>();
+        flattened.values().forEach(totals -> ingredientIds.addAll(totals.keySet()));
+        String[] stockIds = ingredientIds.toArray(String[]::new);
+        Map<String, Integer> stockIndex = new HashMap<>();
+        for (int i = 0; i < stockIds.length; i++) {
+            stockIndex.put(stockIds[i], i);
+        }
+
+        Map<String, Recipe> recipes = new HashMap<>();
+        flattened.forEach((productId, totals) -> {
+            int[] indexes = new int[totals.size()];
+            int[] quantities = new int[totals.size()];
+            int i = 0;
+            for (Map.Entry<String, Integer> total : totals.entrySet()) {
+                indexes[i] = stockIndex.get(total.getKey());
+                quantities[i] = total.getValue();
+                i++;
+            }
+            recipes.put(productId, new Recipe(indexes, quantities));
+        });
+        return new RecipeTable(stockIds, Map.copyOf(stockIndex), Map.copyOf(recipes));
+    }
+
+    /**
+     * Resolves a product down to the stock items without a recipe of their
+     * own, multiplying quantities along the way.
+     *
+     * @param path products currently being resolved, to detect cycles
+     */
+    private static Map<String, Integer> flatten(String productId, Map<String, List<RecipeLine>> byProduct,
+                                                Map<String, Map<String, Integer>> flattened, Set<String> path) {
+        Map<String, Integer> done = flattened.get(productId);
+        if (done != null) {
+            return done;
+        }
+        if (!path.add(productId)) {
+            throw new IllegalArgumentException(
+                    "Recipes form a cycle: " + String.join(" -> ", path) + " -> " + productId);
+        }
+
+        Map<String, Integer> totals = new TreeMap<>();
+        for (RecipeLine line : byProduct.get(productId)) {
+            if (byProduct.containsKey(line.ingredientId())) {
+                flatten(line.ingredientId(), byProduct, flattened, path).forEach((stockId, quantity) ->
+                        totals.merge(stockId, Math.multiplyExact(quantity, line.quantity()), Math::addExact));
+            } else {
+                totals.merge(line.ingredientId(), line.quantity(), Math::addExact);
+            }
+        }
+
+        path.remove(productId);
+        flattened.put(productId, totals);
+        return totals;
+    }
+
+    int size() {
+        return recipes.size();
+    }
+
+    /**
+     * Expands ordered products into aggregated stock quantities. Products
+     * without a recipe are passed through as stock items of their own.
+     *
+     * @param productQuantities productId -> ordered quantity
+     * @return stockItemId -> quantity, sorted by stockItemId
+     * @throws ArithmeticException if a stock quantity overflows
+     */
+    List<Map.Entry<String, Integer>> expand(Map<String, Integer> productQuantities) {
+        Scratch s = scratch.get();
+        List<Map.Entry<String, Integer>> passThrough = null;
+
+        try {
+            for (Map.Entry<String, Integer> line : productQuantities.entrySet()) {
+                int ordered = line.getValue();
+                Recipe recipe = recipes.get(line.getKey());
+                if (recipe != null) {
+                    for (int i = 0; i < recipe.indexes.length; i++) {
+                        s.add(recipe.indexes[i], Math.multiplyExact(recipe.quantities[i], ordered));
+                    }
+                    continue;
+                }
+                Integer index = stockIndex.get(line.getKey());
+                if (index != null) {
+                    // Sold as is and also used as an ingredient: both draw from the same stock item
+                    s.add(index, ordered);
+                } else {
+                    if (passThrough == null) {
+                        passThrough = new ArrayList<>();
+                    }
+                    passThrough.add(line);
+                }
+            }
+        } catch (RuntimeException e) {
+            s.clear();
+            throw e;
+        }
+
+        List<Map.Entry<String, Integer>> stockLines =
+                new ArrayList<>(s.count + (passThrough != null ? passThrough.size() : 0));
+        s.drainSorted((index, quantity) -> stockLines.add(Map.entry(stockIds[index], quantity)));
+        if (passThrough != null) {
+            stockLines.addAll(passThrough);
+            stockLines.sort(Map.Entry.comparingByKey());
+        }
+        return stockLines;
+    }
+
+    private record Recipe(int[] indexes, int[] quantities) {
+    }
+
+    @FunctionalInterface
+    private interface IndexQuantityConsumer {
+        void accept(int index, int quantity);
+    }
+
+    /**
+     * Per-thread accumulator: totals per stock index plus the list of indexes
+     * touched, so resetting costs only what was used.
+     */
+    private static final class Scratch {
+        private final int[] totals;
+        private final boolean[] used;
+        private final int[] touched;
+        private int count;
+
+        private Scratch(int size) {
+            this.totals = new int[size];
+            this.used = new boolean[size];
+            this.touched = new int[size];
+        }
+
+        private void add(int index, int quantity) {
+            if (!used[index]) {
+                used[index] = true;
+                touched[count++] = index;
+            }
+            totals[index] = Math.addExact(totals[index], quantity);
+        }
+
+        private void drainSorted(IndexQuantityConsumer consumer) {
+            Arrays.sort(touched, 0, count);
+            for (int i = 0; i < count; i++) {
+                int index = touched[i];
+                consumer.accept(index, totals[index]);
+                totals[index] = 0;
+                used[index] = false;
+            }
+            count = 0;
+        }
+
+        private void clear() {
+            for (int i = 0; i < count; i++) {
+                totals[touched[i]] = 0;
+                used[touched[i]] = false;
+            }
+            count = 0;
+        }
+    }
+}
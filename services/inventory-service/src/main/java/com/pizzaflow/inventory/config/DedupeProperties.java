@@ -0,0 +1,36 @@
+package com.pizzaflow.inventory.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Sizing of the processed-event store ({@code inventory.dedupe.*}).
+ */
+@Data
+@ConfigurationProperties(prefix = "inventory.dedupe")
+public class DedupeProperties {
+
+    /**
+     * Number of recently processed keys kept in the in-memory LRU; redeliveries
+     * of these are rejected without touching the database.
+     */
+    private int lruSize = 100_000;
+
+    /**
+     * Expected number of keys within the retention window, used to size the
+     * Bloom filter.
+     */
+    private int expectedEvents = 1_000_000;
+
+    /**
+     * Target false positive rate of the Bloom filter. A false positive only
+     * costs one lookup query.
+     */
+    private double falsePositiveRate = 0.01;
+
+    /**
+     * processed_event rows older than this are purged. Should exceed the Kafka
+     * retention of the consumed topics.
+     */
+    private int retentionDays = 7;
+}
@@ -0,0 +1,78 @@
+package com.pizzaflow.inventory.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Tuning knobs for the outbox relay ({@code inventory.outbox.*}).
+ */
+@Data
+@ConfigurationProperties(prefix = "inventory.outbox")
+public class OutboxProperties {
+
+    /**
+     * Delay between two relay runs, in milliseconds.
+     */
+    private long pollIntervalMs = 5000;
+
+    /**
+     * Number of events claimed and published as one batch.
+     */
+    private int batchSize = 100;
+
+    /**
+     * Upper bound of batches drained in a single relay run, so a backlog
+     * is worked off in one tick instead of one page per tick.
+     */
+    private int maxBatchesPerRun = 20;
+
+    /**
+     * How long a batch waits for broker acknowledgements before the
+     * unacknowledged events are treated as failed.
+     */
+    private long ackTimeoutMs = 10000;
+
+    /**
+     * How long a claimed batch stays leased to one relay instance. Must be
+     * longer than ackTimeoutMs, otherwise another replica may re-claim a batch
+     * that is still being published.
+     */
+    private long leaseMs = 30000;
+
+    /**
+     * Wake the relay through Postgres LISTEN/NOTIFY as soon as an outbox row is
+     * committed. The scheduled poll then only acts as a safety net.
+     */
+    private boolean notifyEnabled = true;
+
+    /**
+     * Postgres channel used for the outbox wake-up notifications.
+     */
+    private String notifyChannel = "inventory_outbox";
+
+    private Retention retention = new Retention();
+
+    /**
+     * Partition maintenance of the daily-partitioned outbox_event table.
+     */
+    @Data
+    public static class Retention {
+
+        /**
+         * Daily partitions older than this many days are removed.
+         */
+        private int retentionDays = 7;
+
+        /**
+         * Number of future daily partitions kept pre-created.
+         */
+        private int premakeDays = 7;
+
+        /**
+         * Detach expired partitions into archiveSchema instead of dropping them.
+         */
+        private boolean archive = false;
+
+        private String archiveSchema = "outbox_archive";
+    }
+}
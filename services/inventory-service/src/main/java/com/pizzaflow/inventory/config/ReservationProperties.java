@@ -0,0 +1,53 @@
+package com.pizzaflow.inventory.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Reservation expiry settings ({@code inventory.reservation.*}).
+ */
+@Data
+@ConfigurationProperties(prefix = "inventory.reservation")
+public class ReservationProperties {
+
+    /**
+     * Release RESERVED stock of orders that are not paid within the TTL.
+     */
+    private boolean expiryEnabled = true;
+
+    /**
+     * How long an unpaid reservation holds its stock.
+     */
+    private Duration ttl = Duration.ofMinutes(15);
+
+    /**
+     * Resolution of the expiry timing wheel; reservations expire at most one
+     * tick late.
+     */
+    private long tickMs = 1000;
+
+    /**
+     * Number of buckets of the timing wheel. Deadlines further away than
+     * wheelSize ticks wrap around and wait out the extra rounds.
+     */
+    private int wheelSize = 1024;
+
+    /**
+     * Maximum number of orders released in one transaction.
+     */
+    private int expiryBatchSize = 500;
+
+    /**
+     * Interval of the sweep that picks up overdue reservations no instance
+     * is tracking, e.g. those of an instance that died and was not restarted.
+     */
+    private long sweepIntervalMs = 60_000;
+
+    /**
+     * How long a reservation must be overdue before the sweep takes it over
+     * from the instance that is expected to expire it.
+     */
+    private long sweepGraceMs = 60_000;
+}
@@ -1,9 +1,11 @@
 package com.pizzaflow.inventory.config;
 
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
 @Configuration
 @EnableScheduling
+@EnableConfigurationProperties({OutboxProperties.class, ReservationProperties.class, DedupeProperties.class})
 public class SchedulingConfig {
 }
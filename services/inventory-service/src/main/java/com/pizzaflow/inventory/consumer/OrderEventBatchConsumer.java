@@ -0,0 +1,102 @@
+package com.pizzaflow.inventory.consumer;
+
+import com.pizzaflow.common.event.OrderCreatedEvent;
+import com.pizzaflow.inventory.service.InventoryService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Batch variant of {@link OrderEventConsumer} ({@code inventory.consumer.batch-enabled}).
+ * Takes up to {@code inventory.consumer.batch-size} order.created events per
+ * poll and reserves them in one transaction. If that transaction fails, the
+ * batch is replayed order by order so one bad order cannot hold back the rest.
+ *
+ * Throughput is recorded per batch (inventory.reservation.batch timer and
+ * size summary, inventory.reservation.orders counter); compare runs with the
+ * batch size set to 1, 50 and 500.
+ */
+@Component
+@ConditionalOnProperty(prefix = "inventory.consumer", name = "batch-enabled", havingValue = "true")
+@Slf4j
+public class OrderEventBatchConsumer {
+
+    private final InventoryService inventoryService;
+    private final Timer batchTimer;
+    private final DistributionSummary batchSize;
+    private final Counter reservedOrders;
+    private final Counter unavailableOrders;
+
+    public OrderEventBatchConsumer(InventoryService inventoryService, MeterRegistry meterRegistry) {
+        this.inventoryService = inventoryService;
+        this.batchTimer = Timer.builder("inventory.reservation.batch")
+                .description("Time to reserve stock for one batch of order.created events")
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("inventory.reservation.batch.size")
+                .description("Number of orders per reservation batch")
+                .register(meterRegistry);
+        this.reservedOrders = Counter.builder("inventory.reservation.orders")
+                .tag("outcome", "reserved")
+                .register(meterRegistry);
+        this.unavailableOrders = Counter.builder("inventory.reservation.orders")
+                .tag("outcome", "unavailable")
+                .register(meterRegistry);
+    }
+
+    @KafkaListener(topics = "order.created", groupId = "inventory-service-group",
+            containerFactory = "batchKafkaListenerContainerFactory",
+            properties = "max.poll.records=${inventory.consumer.batch-size:500}")
+    public void handleOrderCreated(List<OrderCreatedEvent> events) {
+        // Redeliveries can put the same order into one poll twice
+        Map<Long, Map<String, Integer>> orders = new LinkedHashMap<>();
+        for (OrderCreatedEvent event : events) {
+            orders.putIfAbsent(event.getOrderId(), OrderEventConsumer.productQuantities(event));
+        }
+
+        long start = System.nanoTime();
+        int reserved = reserve(orders);
+        long elapsedNanos = System.nanoTime() - start;
+
+        batchTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        batchSize.record(orders.size());
+        reservedOrders.increment(reserved);
+        unavailableOrders.increment(orders.size() - reserved);
+        log.info("Processed {} order.created events in {} ms ({} orders/s), {} reserved",
+                orders.size(), TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                Math.round(orders.size() * 1_000_000_000.0 / Math.max(elapsedNanos, 1)), reserved);
+    }
+
+    private int reserve(Map<Long, Map<String, Integer>> orders) {
+        try {
+            Set<Long> reserved = inventoryService.reserveStockForOrders(orders);
+            return reserved.size();
+        } catch (Exception e) {
+            log.error("Batch reservation of {} orders failed, retrying one by one", orders.size(), e);
+        }
+
+        int reserved = 0;
+        for (Map.Entry<Long, Map<String, Integer>> order : orders.entrySet()) {
+            try {
+                if (inventoryService.reserveStockForOrder(order.getKey(), order.getValue())) {
+                    reserved++;
+                } else {
+                    log.warn("Stock unavailable for order {}", order.getKey());
+                }
+            } catch (Exception e) {
+                log.error("Failed to process order created event for order {}", order.getKey(), e);
+            }
+        }
+        return reserved;
+    }
+}
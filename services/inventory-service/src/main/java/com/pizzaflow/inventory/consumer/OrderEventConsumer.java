@@ -4,13 +4,19 @@ import com.pizzaflow.common.event.OrderCreatedEvent;
 import com.pizzaflow.inventory.service.InventoryService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
 
 import java.util.Map;
 import java.util.stream.Collectors;
 
+/**
+ * Reserves stock for one order.created event per transaction. Replaced by
+ * {@link OrderEventBatchConsumer} when {@code inventory.consumer.batch-enabled} is set.
+ */
 @Component
+@ConditionalOnProperty(prefix = "inventory.consumer", name = "batch-enabled", havingValue = "false", matchIfMissing = true)
 @RequiredArgsConstructor
 @Slf4j
 public class OrderEventConsumer {
@@ -22,18 +28,26 @@ public class OrderEventConsumer {
         log.info("Received Order Created Event: Order ID = {}", event.getOrderId());
 
         try {
-            // Map product IDs to quantities
-            Map<String, Integer> productQuantities = event.getItems().stream()
-                    .collect(Collectors.toMap(
-                            OrderCreatedEvent.OrderItemEvent::getProductId,
-                            OrderCreatedEvent.OrderItemEvent::getQuantity,
-                            Integer::sum));
+            Map<String, Integer> productQuantities = productQuantities(event);
 
-            inventoryService.reserveStockForOrder(event.getOrderId(), productQuantities);
+            // Shortages are not exceptions: INVENTORY_UNAVAILABLE is published via Outbox
+            if (!inventoryService.reserveStockForOrder(event.getOrderId(), productQuantities)) {
+                log.warn("Stock unavailable for order {}", event.getOrderId());
+            }
 
         } catch (Exception e) {
             log.error("Failed to process order created event for order {}", event.getOrderId(), e);
-            // Event will be published via Outbox in InventoryService
         }
     }
+
+    /**
+     * Maps product IDs to quantities, summing repeated products.
+     */
+    static Map<String, Integer> productQuantities(OrderCreatedEvent event) {
+        return event.getItems().stream()
+                .collect(Collectors.toMap(
+                        OrderCreatedEvent.OrderItemEvent::getProductId,
+                        OrderCreatedEvent.OrderItemEvent::getQuantity,
+                        Integer::sum));
+    }
 }
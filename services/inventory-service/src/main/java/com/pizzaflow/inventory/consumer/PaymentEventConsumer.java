@@ -0,0 +1,91 @@
+package com.pizzaflow.inventory.consumer;
+
+import com.pizzaflow.common.event.payment.PaymentEvent;
+import com.pizzaflow.inventory.service.InventoryService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+@Component
+@Slf4j
+public class PaymentEventConsumer {
+
+    private final InventoryService inventoryService;
+    private final Timer releaseLatency;
+    private final Timer failedReleaseLatency;
+    private final Counter emptyReleases;
+
+    public PaymentEventConsumer(InventoryService inventoryService, MeterRegistry meterRegistry) {
+        this.inventoryService = inventoryService;
+        this.releaseLatency = releaseLatencyTimer("success", meterRegistry);
+        this.failedReleaseLatency = releaseLatencyTimer("failure", meterRegistry);
+        this.emptyReleases = Counter.builder("inventory.release.empty")
+                .description("Declined orders that had no reserved stock yet when their payment failure arrived")
+                .register(meterRegistry);
+    }
+
+    @KafkaListener(topics = "payment.completed", groupId = "inventory-service-group")
+    public void handlePaymentCompleted(PaymentEvent event) {
+        log.info("Received Payment Completed Event: Order ID = {}", event.getOrderId());
+
+        try {
+            inventoryService.holdReservationsForPaidOrder(event.getOrderId());
+        } catch (Exception e) {
+            log.error("Failed to process payment completed event for order {}", event.getOrderId(), e);
+        }
+    }
+
+    /**
+     * Releases the stock of every declined order in the poll with one
+     * transaction. If that fails, the orders are released one by one so a
+     * single bad order cannot keep the others' stock reserved.
+     */
+    @KafkaListener(topics = "payment.failed", groupId = "inventory-service-group",
+            containerFactory = "batchKafkaListenerContainerFactory")
+    public void handlePaymentFailed(List<PaymentEvent> events) {
+        Set<Long> orderIds = new LinkedHashSet<>();
+        events.forEach(event -> orderIds.add(event.getOrderId()));
+        log.info("Received {} Payment Failed Events for {} orders", events.size(), orderIds.size());
+
+        Set<Long> failed = new HashSet<>();
+        try {
+            int released = inventoryService.releaseStockForOrders(orderIds);
+            emptyReleases.increment(orderIds.size() - released);
+        } catch (Exception e) {
+            log.error("Bulk release of {} orders failed, retrying one by one", orderIds.size(), e);
+            for (Long orderId : orderIds) {
+                try {
+                    inventoryService.releaseStockForOrder(orderId);
+                } catch (Exception ex) {
+                    failed.add(orderId);
+                    log.error("Failed to release stock for order {}", orderId, ex);
+                }
+            }
+        }
+
+        // The release transaction has committed, so released stock is available from here on
+        LocalDateTime now = LocalDateTime.now();
+        events.stream()
+                .filter(event -> event.getTimestamp() != null)
+                .forEach(event -> (failed.contains(event.getOrderId()) ? failedReleaseLatency : releaseLatency)
+                        .record(Duration.between(event.getTimestamp(), now)));
+    }
+
+    private static Timer releaseLatencyTimer(String outcome, MeterRegistry meterRegistry) {
+        return Timer.builder("inventory.release.latency")
+                .description("Time from a payment decline until its reserved stock is available again")
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+}
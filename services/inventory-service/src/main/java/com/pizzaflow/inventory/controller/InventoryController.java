@@ -1,13 +1,21 @@
 package com.pizzaflow.inventory.controller;
 
+import com.pizzaflow.inventory.dto.AvailabilityResponse;
 import com.pizzaflow.inventory.dto.CreateInventoryItemRequest;
 import com.pizzaflow.inventory.dto.InventoryItemResponse;
+import com.pizzaflow.inventory.dto.StockImportResponse;
 import com.pizzaflow.inventory.service.InventoryService;
+import com.pizzaflow.inventory.service.StockImportService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
 import java.net.URI;
 import java.util.List;
 
@@ -17,6 +25,7 @@ import java.util.List;
 public class InventoryController {
 
     private final InventoryService inventoryService;
+    private final StockImportService stockImportService;
 
     @PostMapping
     public ResponseEntity<InventoryItemResponse> createInventoryItem(@Valid @RequestBody CreateInventoryItemRequest request) {
@@ -25,13 +34,54 @@ public class InventoryController {
                 .body(response);
     }
 
+    /**
+     * Streams a CSV or NDJSON stock file into inventory_item. The body is read
+     * directly from the request, so files larger than the heap are fine.
+     */
+    @PostMapping(value = "/import", consumes = {StockImportService.TEXT_CSV_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<StockImportResponse> importStock(HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(stockImportService.importStock(
+                MediaType.parseMediaType(request.getContentType()), request.getInputStream()));
+    }
+
     @GetMapping
     public ResponseEntity<List<InventoryItemResponse>> getAllItems() {
         return ResponseEntity.ok(inventoryService.getAllItems());
     }
 
+    /**
+     * Availability for storefront polling. Without {@code since} the full
+     * snapshot is returned, honouring If-None-Match against its version.
+     * With {@code since} only the products changed after that version are
+     * returned, or 304 if there are none. Versions and ETags carry the epoch
+     * of the instance that issued them; a foreign one gets the full snapshot.
+     */
+    @GetMapping("/availability")
+    public ResponseEntity<AvailabilityResponse> getAvailability(@RequestParam(required = false) String since,
+                                                                WebRequest webRequest) {
+        if (since == null) {
+            AvailabilityResponse snapshot = inventoryService.getAvailability();
+            String eTag = "\"" + snapshot.getVersion() + "\"";
+            if (webRequest.checkNotModified(eTag)) {
+                return null;
+            }
+            return ResponseEntity.ok().eTag(eTag).body(snapshot);
+        }
+
+        AvailabilityResponse changes = inventoryService.getAvailabilityChanges(since);
+        if (changes == null) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+        return ResponseEntity.ok(changes);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<InventoryItemResponse> getItemById(@PathVariable Long id) {
         return ResponseEntity.ok(inventoryService.getItemById(id));
     }
+
+    @PostMapping("/{id}/shards")
+    public ResponseEntity<InventoryItemResponse> shardItem(@PathVariable Long id, @RequestParam int count) {
+        return ResponseEntity.ok(inventoryService.shardItem(id, count));
+    }
 }
@@ -0,0 +1,36 @@
+package com.pizzaflow.inventory.controller;
+
+import com.pizzaflow.inventory.dto.OutboxReplayStatus;
+import com.pizzaflow.inventory.service.OutboxReplayService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/admin/outbox")
+@RequiredArgsConstructor
+public class OutboxAdminController {
+
+    private final OutboxReplayService outboxReplayService;
+
+    /**
+     * Starts moving parked DEAD events back to PENDING in throttled batches.
+     * The replay runs in the background; its progress is served by
+     * {@link #getReplayStatus()}.
+     */
+    @PostMapping("/dead/replay")
+    public ResponseEntity<OutboxReplayStatus> replayDeadEvents(
+            @RequestParam(required = false) String eventType,
+            @RequestParam(defaultValue = "1000") int limit,
+            @RequestParam(defaultValue = "100") int batchSize,
+            @RequestParam(defaultValue = "200") long pauseMs) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(outboxReplayService.startReplay(eventType, limit, batchSize, pauseMs));
+    }
+
+    @GetMapping("/dead/replay")
+    public ResponseEntity<OutboxReplayStatus> getReplayStatus() {
+        return ResponseEntity.ok(outboxReplayService.status());
+    }
+}
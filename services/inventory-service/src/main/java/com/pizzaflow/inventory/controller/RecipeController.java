@@ -0,0 +1,35 @@
+package com.pizzaflow.inventory.controller;
+
+import com.pizzaflow.inventory.dto.RecipeRequest;
+import com.pizzaflow.inventory.service.RecipeService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/inventory/recipes")
+@RequiredArgsConstructor
+public class RecipeController {
+
+    private final RecipeService recipeService;
+
+    @GetMapping("/{productId}")
+    public ResponseEntity<Map<String, Integer>> getRecipe(@PathVariable String productId) {
+        return ResponseEntity.ok(recipeService.getRecipe(productId));
+    }
+
+    @PutMapping("/{productId}")
+    public ResponseEntity<Map<String, Integer>> saveRecipe(@PathVariable String productId,
+                                                           @Valid @RequestBody RecipeRequest request) {
+        return ResponseEntity.ok(recipeService.saveRecipe(productId, request.getIngredients()));
+    }
+
+    @DeleteMapping("/{productId}")
+    public ResponseEntity<Void> deleteRecipe(@PathVariable String productId) {
+        recipeService.deleteRecipe(productId);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,184 @@
+package com.pizzaflow.inventory.dedupe;
+
+import com.pizzaflow.inventory.config.DedupeProperties;
+import com.pizzaflow.inventory.repository.ProcessedEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Idempotent-consumer store. processed_event is the durable record; two
+ * in-memory layers in front of it keep the database out of the common cases:
+ * an LRU of recently processed keys rejects redeliveries outright, and a
+ * Bloom filter over every key in the table lets first-time events go straight
+ * to recording their key without a lookup query.
+ *
+ * Claims must happen in the transaction that processes the event, so the key
+ * and the side effects commit or roll back together.
+ */
+@Component
+@Slf4j
+public class ProcessedEventStore {
+
+    private final ProcessedEventRepository processedEventRepository;
+    private final DedupeProperties dedupeProperties;
+    private final Map<String, Boolean> recent;
+    private final Counter lruHits;
+    private final Counter bloomNegatives;
+    private final Counter lookups;
+    private final Counter duplicates;
+
+    private volatile BloomFilter bloomFilter;
+
+    public ProcessedEventStore(ProcessedEventRepository processedEventRepository,
+                               DedupeProperties dedupeProperties,
+                               MeterRegistry meterRegistry) {
+        this.processedEventRepository = processedEventRepository;
+        this.dedupeProperties = dedupeProperties;
+        int lruSize = dedupeProperties.getLruSize();
+        this.recent = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > lruSize;
+            }
+        };
+        this.lruHits = counter(meterRegistry, "lru_hit");
+        this.bloomNegatives = counter(meterRegistry, "bloom_negative");
+        this.lookups = counter(meterRegistry, "lookup");
+        this.duplicates = counter(meterRegistry, "duplicate");
+    }
+
+    @PostConstruct
+    void load() {
+        rebuildBloomFilter();
+    }
+
+    /**
+     * Claims one event key.
+     *
+     * @return true if the event is seen for the first time and should be processed
+     */
+    public boolean claim(String topic, String key) {
+        return !claimAll(topic, List.of(key)).isEmpty();
+    }
+
+    /**
+     * Claims many event keys of one topic with at most one lookup and one
+     * insert statement.
+     *
+     * @return the keys seen for the first time, in input order
+     */
+    public Set<String> claimAll(String topic, Collection<String> keys) {
+        BloomFilter filter = bloomFilter;
+        List<String> unseen = new ArrayList<>(keys.size());
+        List<String> maybeSeen = new ArrayList<>();
+        for (String key : keys) {
+            String id = id(topic, key);
+            if (isRecent(id)) {
+                lruHits.increment();
+            } else if (filter.mightContain(id)) {
+                maybeSeen.add(key);
+            } else {
+                bloomNegatives.increment();
+                unseen.add(key);
+            }
+        }
+
+        if (!maybeSeen.isEmpty()) {
+            lookups.increment(maybeSeen.size());
+            Set<String> existing = processedEventRepository.findExisting(topic, maybeSeen);
+            existing.forEach(key -> remember(id(topic, key)));
+            maybeSeen.stream().filter(key -> !existing.contains(key)).forEach(unseen::add);
+        }
+
+        Set<String> claimed = unseen.isEmpty() ? Set.of() : processedEventRepository.insert(topic, unseen);
+        claimed.forEach(key -> filter.put(id(topic, key)));
+        rememberAfterCommit(topic, claimed);
+
+        duplicates.increment(keys.size() - claimed.size());
+        Set<String> ordered = new LinkedHashSet<>();
+        keys.stream().filter(claimed::contains).forEach(ordered::add);
+        return ordered;
+    }
+
+    /**
+     * Keys of the topic that are recorded as processed, read from the table
+     * itself. Used to look up events that may have been recorded by another
+     * transaction a moment ago, which the in-memory layers cannot answer.
+     */
+    public Set<String> findProcessed(String topic, Collection<String> keys) {
+        return keys.isEmpty() ? Set.of() : processedEventRepository.findExisting(topic, keys);
+    }
+
+    /**
+     * Drops keys past the retention window and rebuilds the Bloom filter, so
+     * it does not fill up with keys that are gone from the table.
+     */
+    @Scheduled(cron = "${inventory.dedupe.purge-cron:0 45 3 * * *}")
+    public void purge() {
+        int deleted = processedEventRepository.deleteOlderThanDays(dedupeProperties.getRetentionDays());
+        log.info("Purged {} processed_event rows older than {} days", deleted, dedupeProperties.getRetentionDays());
+        rebuildBloomFilter();
+    }
+
+    private void rebuildBloomFilter() {
+        BloomFilter filter = new BloomFilter(dedupeProperties.getExpectedEvents(), dedupeProperties.getFalsePositiveRate());
+        long[] count = {0};
+        processedEventRepository.forEach((topic, key) -> {
+            filter.put(id(topic, key));
+            count[0]++;
+        });
+        bloomFilter = filter;
+        log.info("Loaded {} processed event keys into the dedupe Bloom filter", count[0]);
+    }
+
+    private synchronized boolean isRecent(String id) {
+        return recent.get(id) != null;
+    }
+
+    private synchronized void remember(String id) {
+        recent.put(id, Boolean.TRUE);
+    }
+
+    // Only committed keys may reject redeliveries; a rolled back claim must be retried
+    private void rememberAfterCommit(String topic, Set<String> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        Runnable action = () -> keys.forEach(key -> remember(id(topic, key)));
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static String id(String topic, String key) {
+        return topic + ':' + key;
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("inventory.dedupe.checks")
+                .description("Idempotency checks of consumed events by how they were resolved")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
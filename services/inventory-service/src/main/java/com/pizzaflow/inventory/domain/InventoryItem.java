@@ -39,6 +39,10 @@ public class InventoryItem {
     @Column(name = "unit", nullable = false, length = 50)
     private String unit;
 
+    // Managed by ShardedStockRepository; > 0 means stock lives in inventory_item_shard
+    @Column(name = "shard_count", nullable = false, insertable = false, updatable = false)
+    private Integer shardCount;
+
     @Version
     @Column(name = "version")
     private Long version;
@@ -66,24 +70,4 @@ public class InventoryItem {
     public Integer getAvailableQuantity() {
         return quantity - reservedQuantity;
     }
-
-    public boolean canReserve(Integer requestedQuantity) {
-        return getAvailableQuantity() >= requestedQuantity;
-    }
-
-    public void reserve(Integer requestedQuantity) {
-        if (!canReserve(requestedQuantity)) {
-            throw new IllegalStateException("Insufficient stock for product: " + productId);
-        }
-        this.reservedQuantity += requestedQuantity;
-    }
-
-    public void release(Integer quantityToRelease) {
-        this.reservedQuantity = Math.max(0, this.reservedQuantity - quantityToRelease);
-    }
-
-    public void commit(Integer quantityToCommit) {
-        this.quantity -= quantityToCommit;
-        this.reservedQuantity -= quantityToCommit;
-    }
 }
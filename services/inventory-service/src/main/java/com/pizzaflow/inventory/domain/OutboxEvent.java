@@ -52,6 +52,12 @@ public class OutboxEvent {
     @Column(name = "last_attempt_at")
     private Instant lastAttemptAt;
 
+    @Column(name = "locked_by", length = 64)
+    private String lockedBy;
+
+    @Column(name = "locked_until")
+    private Instant lockedUntil;
+
     @Override
     public boolean equals(Object o) {
         if (this == o)
@@ -3,5 +3,7 @@ package com.pizzaflow.inventory.domain;
 public enum OutboxStatus {
     PENDING,
     PUBLISHED,
-    FAILED
+    FAILED,
+    // Retries exhausted; parked until replayed through the admin API
+    DEAD
 }
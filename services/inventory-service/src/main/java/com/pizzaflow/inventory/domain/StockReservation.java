@@ -35,6 +35,14 @@ public class StockReservation {
     @Column(name = "quantity", nullable = false)
     private Integer quantity;
 
+    // Shard the quantity was taken from when the item is sharded
+    @Column(name = "shard_no")
+    private Integer shardNo;
+
+    // Reservation is released by the expiry job after this point; null once paid
+    @Column(name = "expires_at")
+    private Instant expiresAt;
+
     @Enumerated(EnumType.STRING)
     @Column(name = "status", nullable = false, length = 50)
     private ReservationStatus status;
@@ -0,0 +1,24 @@
+package com.pizzaflow.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Availability of all products, or only of the products that changed since
+ * the version a client already has. When {@code full} is true the client
+ * must replace its copy instead of merging. The version is opaque to
+ * clients; it is only valid against the instance that handed it out.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityResponse {
+    private String version;
+    private boolean full;
+    private List<ProductAvailability> items;
+}
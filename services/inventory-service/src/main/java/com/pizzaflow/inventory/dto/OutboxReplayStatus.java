@@ -0,0 +1,25 @@
+package com.pizzaflow.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Progress of the DEAD outbox event replay running in the background.
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxReplayStatus {
+    private boolean running;
+    private String eventType;
+    private int limit;
+    private int replayed;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private String error;
+}
@@ -0,0 +1,16 @@
+package com.pizzaflow.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductAvailability {
+    private String productId;
+    private String productName;
+    private Integer availableQuantity;
+}
@@ -0,0 +1,21 @@
+package com.pizzaflow.inventory.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecipeRequest {
+
+    // Stock item productId -> quantity used by one unit of the product
+    @NotEmpty(message = "A recipe needs at least one ingredient")
+    private Map<String, @Positive(message = "Ingredient quantity must be positive") Integer> ingredients;
+}
@@ -0,0 +1,26 @@
+package com.pizzaflow.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockImportResponse {
+    private long rowsRead;
+    private long inserted;
+    private long updated;
+    // Sharded items; their stock is managed on the shards and not imported
+    private long skipped;
+    // Items whose imported quantity is below their reserved stock; left unchanged
+    private long rejected;
+    // Up to the first 100 rejected productIds
+    private List<String> rejectedProductIds;
+    private long durationMs;
+    private long rowsPerSecond;
+}
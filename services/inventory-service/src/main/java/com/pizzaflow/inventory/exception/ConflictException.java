@@ -0,0 +1,11 @@
+package com.pizzaflow.inventory.exception;
+
+/**
+ * A request that conflicts with the current state of the service, e.g.
+ * sharding an item twice or starting a replay while one is running.
+ */
+public class ConflictException extends RuntimeException {
+    public ConflictException(String message) {
+        super(message);
+    }
+}
@@ -1,7 +0,0 @@
-package com.pizzaflow.inventory.exception;
-
-public class InsufficientStockException extends RuntimeException {
-    public InsufficientStockException(String message) {
-        super(message);
-    }
-}
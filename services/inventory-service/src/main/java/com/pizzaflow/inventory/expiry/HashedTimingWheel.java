@@ -0,0 +1,160 @@
+package com.pizzaflow.inventory.expiry;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.LongConsumer;
+
+/**
+ * Hashed timing wheel for long keys. Scheduling is O(1) and lock-free: new
+ * timeouts are queued and only sorted into their bucket by the thread that
+ * advances the wheel. Each tick visits a single bucket, so the cost of a tick
+ * depends on that bucket and not on the total number of timeouts. Deadlines
+ * beyond one revolution carry a round counter instead of needing a larger
+ * wheel. Cancellations travel through the same queue as new timeouts, so a
+ * cancel only affects timeouts scheduled before it; cancelled timeouts are
+ * dropped from their bucket when it is next visited.
+ */
+final class HashedTimingWheel {
+
+    // Deadline marker of a queued cancellation
+    private static final long CANCEL = Long.MIN_VALUE;
+
+    private final long tickMillis;
+    private final int mask;
+    private final ArrayDeque<Timeout>[] buckets;
+    private final Queue<Timeout> incoming = new ConcurrentLinkedQueue<>();
+    // Live timeouts by key, chained through Timeout.sameKey; only touched by the advancing thread
+    private final Map<Long, Timeout> byKey = new HashMap<>();
+
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    HashedTimingWheel(long tickMillis, int wheelSize, long nowMillis) {
+        if (tickMillis <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("tickMillis and wheelSize must be positive");
+        }
+        int bucketCount = Integer.highestOneBit(wheelSize - 1) << 1;
+        this.tickMillis = tickMillis;
+        this.mask = Math.max(bucketCount, 1) - 1;
+        this.buckets = new ArrayDeque[mask + 1];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new ArrayDeque<>();
+        }
+        this.currentTick = nowMillis / tickMillis;
+    }
+
+    /**
+     * Schedules a key; safe to call from any thread. A key scheduled twice
+     * fires twice.
+     */
+    void schedule(long key, long deadlineMillis) {
+        incoming.add(new Timeout(key, deadlineMillis));
+    }
+
+    /**
+     * Cancels every timeout of the key scheduled before this call; safe to
+     * call from any thread. Takes effect on the next advance.
+     */
+    void cancel(long key) {
+        incoming.add(new Timeout(key, CANCEL));
+    }
+
+    /**
+     * Fires every timeout due up to nowMillis. Must only be called by one
+     * thread at a time.
+     *
+     * @return the number of keys handed to the consumer
+     */
+    int advance(long nowMillis, LongConsumer expired) {
+        transferIncoming();
+        int fired = 0;
+        long targetTick = nowMillis / tickMillis;
+        while (currentTick <= targetTick) {
+            Iterator<Timeout> it = buckets[(int) (currentTick & mask)].iterator();
+            while (it.hasNext()) {
+                Timeout timeout = it.next();
+                if (timeout.cancelled) {
+                    it.remove();
+                    continue;
+                }
+                if (timeout.rounds > 0) {
+                    timeout.rounds--;
+                    continue;
+                }
+                it.remove();
+                unlink(timeout);
+                size--;
+                fired++;
+                expired.accept(timeout.key);
+            }
+            currentTick++;
+        }
+        return fired;
+    }
+
+    /**
+     * Number of timeouts in the wheel, not counting ones still queued.
+     */
+    int size() {
+        return size;
+    }
+
+    private void transferIncoming() {
+        Timeout timeout;
+        while ((timeout = incoming.poll()) != null) {
+            if (timeout.deadlineMillis == CANCEL) {
+                cancelScheduled(timeout.key);
+                continue;
+            }
+            // Overdue deadlines land in the bucket that is visited next
+            long tick = Math.max(timeout.deadlineMillis / tickMillis, currentTick);
+            timeout.rounds = (tick - currentTick) / buckets.length;
+            buckets[(int) (tick & mask)].add(timeout);
+            timeout.sameKey = byKey.put(timeout.key, timeout);
+            size++;
+        }
+    }
+
+    private void cancelScheduled(long key) {
+        for (Timeout timeout = byKey.remove(key); timeout != null; timeout = timeout.sameKey) {
+            timeout.cancelled = true;
+            size--;
+        }
+    }
+
+    private void unlink(Timeout fired) {
+        Timeout head = byKey.get(fired.key);
+        if (head == fired) {
+            if (fired.sameKey == null) {
+                byKey.remove(fired.key);
+            } else {
+                byKey.put(fired.key, fired.sameKey);
+            }
+            return;
+        }
+        for (Timeout timeout = head; timeout != null; timeout = timeout.sameKey) {
+            if (timeout.sameKey == fired) {
+                timeout.sameKey = fired.sameKey;
+                return;
+            }
+        }
+    }
+
+    private static final class Timeout {
+        private final long key;
+        private final long deadlineMillis;
+        private long rounds;
+        private boolean cancelled;
+        private Timeout sameKey;
+
+        private Timeout(long key, long deadlineMillis) {
+            this.key = key;
+            this.deadlineMillis = deadlineMillis;
+        }
+    }
+}
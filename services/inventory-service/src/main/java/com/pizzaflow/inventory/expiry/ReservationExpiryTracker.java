@@ -0,0 +1,88 @@
+package com.pizzaflow.inventory.expiry;
+
+import com.pizzaflow.inventory.config.ReservationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.function.LongConsumer;
+
+/**
+ * In-process schedule of reservation expiry deadlines, keyed by order.
+ * Orders are only tracked once the reserving transaction has committed and
+ * are cancelled once their order is paid, committed or released. A fired
+ * order that was settled elsewhere in the meantime (e.g. by another
+ * instance) is still a no-op for the expiry job, which checks
+ * stock_reservation before releasing anything.
+ */
+@Component
+public class ReservationExpiryTracker {
+
+    private final ReservationProperties reservationProperties;
+    private final HashedTimingWheel wheel;
+
+    public ReservationExpiryTracker(ReservationProperties reservationProperties) {
+        this.reservationProperties = reservationProperties;
+        this.wheel = new HashedTimingWheel(reservationProperties.getTickMs(), reservationProperties.getWheelSize(),
+                System.currentTimeMillis());
+    }
+
+    /**
+     * Tracks the orders with a fresh TTL once the caller's transaction commits.
+     */
+    public void trackAfterCommit(Collection<Long> orderIds) {
+        if (!reservationProperties.isExpiryEnabled() || orderIds.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            track(orderIds);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                track(orderIds);
+            }
+        });
+    }
+
+    /**
+     * Takes the orders off the schedule once the caller's transaction commits.
+     */
+    public void cancelAfterCommit(Collection<Long> orderIds) {
+        if (!reservationProperties.isExpiryEnabled() || orderIds.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            orderIds.forEach(wheel::cancel);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                orderIds.forEach(wheel::cancel);
+            }
+        });
+    }
+
+    public void track(long orderId, long deadlineMillis) {
+        wheel.schedule(orderId, deadlineMillis);
+    }
+
+    /**
+     * Hands every order whose deadline has passed to the consumer.
+     */
+    public synchronized int pollExpired(LongConsumer expired) {
+        return wheel.advance(System.currentTimeMillis(), expired);
+    }
+
+    public synchronized int size() {
+        return wheel.size();
+    }
+
+    private void track(Collection<Long> orderIds) {
+        long deadline = System.currentTimeMillis() + reservationProperties.getTtl().toMillis();
+        orderIds.forEach(orderId -> wheel.schedule(orderId, deadline));
+    }
+}
@@ -0,0 +1,55 @@
+package com.pizzaflow.inventory.ledger;
+
+import lombok.Getter;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free stock counters of one product.
+ * {@code available} is the authoritative, never negative amount that can still
+ * be reserved; it is only decremented through a CAS loop. {@code reservedDelta}
+ * accumulates changes of reserved_quantity that have not been flushed yet.
+ */
+final class StockCell {
+
+    @Getter
+    private final Long itemId;
+    @Getter
+    private final String productId;
+    private final AtomicLong available;
+    private final LongAdder reservedDelta = new LongAdder();
+
+    StockCell(Long itemId, String productId, long available) {
+        this.itemId = itemId;
+        this.productId = productId;
+        this.available = new AtomicLong(available);
+    }
+
+    boolean tryReserve(int quantity) {
+        long current;
+        do {
+            current = available.get();
+            if (current < quantity) {
+                return false;
+            }
+        } while (!available.compareAndSet(current, current - quantity));
+        return true;
+    }
+
+    void restore(int quantity) {
+        available.addAndGet(quantity);
+    }
+
+    void addReserved(long delta) {
+        reservedDelta.add(delta);
+    }
+
+    long drainReservedDelta() {
+        return reservedDelta.sumThenReset();
+    }
+
+    long available() {
+        return available.get();
+    }
+}
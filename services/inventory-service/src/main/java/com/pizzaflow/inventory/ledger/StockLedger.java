@@ -0,0 +1,205 @@
+package com.pizzaflow.inventory.ledger;
+
+import com.pizzaflow.inventory.domain.InventoryItem;
+import com.pizzaflow.inventory.repository.InventoryItemRepository;
+import com.pizzaflow.inventory.repository.StockLedgerRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Opt-in in-memory stock ledger for hot SKUs ({@code inventory.ledger.enabled}).
+ * Reservations are answered from per-product CAS cells instead of locking the
+ * inventory_item row; only the stock_reservation row is written in the caller's
+ * transaction. Changes to inventory_item counters are aggregated per product
+ * and flushed write-behind in one batch every flush interval.
+ *
+ * stock_reservation stays the durable source of truth: on startup the counters
+ * are reconciled from it before the cells are built, which also replays any
+ * deltas lost with the previous process. The ledger assumes a single active
+ * inventory-service instance; failover means the standby starts and rebuilds.
+ */
+@Component
+@ConditionalOnProperty(prefix = "inventory.ledger", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class StockLedger {
+
+    private final StockLedgerRepository stockLedgerRepository;
+    private final InventoryItemRepository inventoryItemRepository;
+
+    private final Map<String, StockCell> cellsByProduct = new ConcurrentHashMap<>();
+    private final Map<Long, StockCell> cellsByItem = new ConcurrentHashMap<>();
+    private final Queue<CommittedReservation> unappliedCommits = new ConcurrentLinkedQueue<>();
+
+    @PostConstruct
+    void rebuild() {
+        stockLedgerRepository.reconcile();
+        cellsByProduct.clear();
+        cellsByItem.clear();
+        for (InventoryItem item : inventoryItemRepository.findAll()) {
+            track(item.getId(), item.getProductId(), item.getAvailableQuantity());
+        }
+        log.info("Stock ledger rebuilt from stock_reservation with {} products", cellsByProduct.size());
+    }
+
+    /**
+     * Starts tracking a new inventory item once the caller's transaction commits.
+     */
+    public void register(Long itemId, String productId, long available) {
+        onCompletion(() -> track(itemId, productId, available), () -> {
+        });
+    }
+
+    /**
+     * Reserves all lines or none. Lines are taken one by one; on the first
+     * shortfall the lines already taken are put back. If the surrounding
+     * transaction rolls back, the reserved amounts are returned as well.
+     *
+     * @return the lines that could not be reserved; empty on success
+     */
+    public List<Map.Entry<String, Integer>> reserve(List<Map.Entry<String, Integer>> lines) {
+        List<Map.Entry<String, Integer>> taken = new ArrayList<>(lines.size());
+        for (Map.Entry<String, Integer> line : lines) {
+            StockCell cell = cellsByProduct.get(line.getKey());
+            if (cell == null || !cell.tryReserve(line.getValue())) {
+                restore(taken);
+                List<Map.Entry<String, Integer>> shortLines = new ArrayList<>();
+                shortLines.add(line);
+                return shortLines;
+            }
+            taken.add(line);
+        }
+
+        onCompletion(
+                () -> taken.forEach(line -> cellsByProduct.get(line.getKey()).addReserved(line.getValue())),
+                () -> restore(taken));
+        return List.of();
+    }
+
+    /**
+     * Returns a released reservation to available stock once the caller commits.
+     */
+    public void release(Long itemId, int quantity) {
+        StockCell cell = cellsByItem.get(itemId);
+        if (cell == null) {
+            return;
+        }
+        onCompletion(() -> {
+            cell.restore(quantity);
+            cell.addReserved(-quantity);
+        }, () -> {
+        });
+    }
+
+    /**
+     * Consumes a reservation once the caller commits. Available stock does not
+     * change (it was taken at reserve time); quantity and reserved_quantity are
+     * decremented by the next flush, which also settles the reservation row.
+     */
+    public void commit(Long reservationId, Long itemId, int quantity) {
+        StockCell cell = cellsByItem.get(itemId);
+        if (cell == null) {
+            return;
+        }
+        onCompletion(() -> {
+            cell.addReserved(-quantity);
+            unappliedCommits.add(new CommittedReservation(reservationId, itemId, quantity));
+        }, () -> {
+        });
+    }
+
+    public long available(String productId) {
+        StockCell cell = cellsByProduct.get(productId);
+        return cell != null ? cell.available() : 0;
+    }
+
+    /**
+     * Write-behind flush of the aggregated per-product deltas.
+     */
+    @Scheduled(fixedDelayString = "${inventory.ledger.flush-interval-ms:200}")
+    @PreDestroy
+    public synchronized void flush() {
+        Map<Long, long[]> totals = new HashMap<>();
+        for (StockCell cell : cellsByItem.values()) {
+            long reservedDelta = cell.drainReservedDelta();
+            if (reservedDelta != 0) {
+                totals.computeIfAbsent(cell.getItemId(), id -> new long[2])[0] += reservedDelta;
+            }
+        }
+
+        List<CommittedReservation> commits = new ArrayList<>();
+        CommittedReservation commit;
+        while ((commit = unappliedCommits.poll()) != null) {
+            commits.add(commit);
+            totals.computeIfAbsent(commit.itemId(), id -> new long[2])[1] += commit.quantity();
+        }
+
+        if (totals.isEmpty()) {
+            return;
+        }
+
+        List<StockLedgerRepository.ItemDelta> deltas = new ArrayList<>(totals.size());
+        totals.forEach((itemId, t) -> deltas.add(new StockLedgerRepository.ItemDelta(itemId, t[0], t[1])));
+        List<Long> reservationIds = commits.stream().map(CommittedReservation::reservationId).toList();
+
+        try {
+            stockLedgerRepository.applyFlush(deltas, reservationIds);
+            log.debug("Flushed stock deltas for {} items and {} commits", deltas.size(), commits.size());
+        } catch (Exception e) {
+            // Put everything back for the next attempt
+            totals.forEach((itemId, t) -> {
+                if (t[0] != 0) {
+                    cellsByItem.get(itemId).addReserved(t[0]);
+                }
+            });
+            unappliedCommits.addAll(commits);
+            log.error("Failed to flush stock ledger, will retry: {}", e.getMessage());
+        }
+    }
+
+    private void track(Long itemId, String productId, long available) {
+        StockCell cell = new StockCell(itemId, productId, available);
+        cellsByProduct.put(productId, cell);
+        cellsByItem.put(itemId, cell);
+    }
+
+    private void restore(List<Map.Entry<String, Integer>> lines) {
+        lines.forEach(line -> cellsByProduct.get(line.getKey()).restore(line.getValue()));
+    }
+
+    private static void onCompletion(Runnable afterCommit, Runnable afterRollback) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            afterCommit.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                // STATUS_UNKNOWN keeps the stock taken: under-selling is safe, overselling is not
+                if (status == STATUS_COMMITTED) {
+                    afterCommit.run();
+                } else if (status == STATUS_ROLLED_BACK) {
+                    afterRollback.run();
+                }
+            }
+        });
+    }
+
+    private record CommittedReservation(Long reservationId, Long itemId, int quantity) {
+    }
+}
@@ -1,14 +1,113 @@
 package com.pizzaflow.inventory.repository;
 
 import com.pizzaflow.inventory.domain.OutboxEvent;
-import com.pizzaflow.inventory.domain.OutboxStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
-    
-    List<OutboxEvent> findTop100ByStatusOrderByCreatedAtAsc(OutboxStatus status);
+
+    /**
+     * Leases the oldest unclaimed PENDING events to the given relay instance.
+     * Rows locked by a concurrent claim are skipped, so every replica gets a
+     * disjoint batch. The status literal keeps the partial index usable.
+     */
+    @Transactional
+    @Query(value = "WITH claimed AS (UPDATE outbox_event SET locked_by = :owner, " +
+            "locked_until = LOCALTIMESTAMP + (:leaseMs * INTERVAL '1 millisecond') " +
+            "WHERE (id, created_at) IN (SELECT id, created_at FROM outbox_event " +
+            "WHERE status = 'PENDING' AND (locked_until IS NULL OR locked_until < LOCALTIMESTAMP) " +
+            "ORDER BY created_at LIMIT :limit FOR UPDATE SKIP LOCKED) " +
+            "RETURNING *) SELECT * FROM claimed ORDER BY created_at", nativeQuery = true)
+    List<OutboxEvent> claimPending(@Param("owner") String owner,
+                                   @Param("leaseMs") long leaseMs,
+                                   @Param("limit") int limit);
+
+    /**
+     * Leases the oldest unclaimed FAILED events that still have retry attempts left.
+     */
+    @Transactional
+    @Query(value = "WITH claimed AS (UPDATE outbox_event SET locked_by = :owner, " +
+            "locked_until = LOCALTIMESTAMP + (:leaseMs * INTERVAL '1 millisecond') " +
+            "WHERE (id, created_at) IN (SELECT id, created_at FROM outbox_event " +
+            "WHERE status = 'FAILED' AND retry_count < :maxRetries " +
+            "AND (locked_until IS NULL OR locked_until < LOCALTIMESTAMP) " +
+            "ORDER BY created_at LIMIT :limit FOR UPDATE SKIP LOCKED) " +
+            "RETURNING *) SELECT * FROM claimed ORDER BY created_at", nativeQuery = true)
+    List<OutboxEvent> claimFailed(@Param("owner") String owner,
+                                  @Param("leaseMs") long leaseMs,
+                                  @Param("maxRetries") int maxRetries,
+                                  @Param("limit") int limit);
+
+    /**
+     * Hands leased events back without touching their status.
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE OutboxEvent e SET e.lockedBy = NULL, e.lockedUntil = NULL " +
+            "WHERE e.id IN :ids AND e.lockedBy = :owner")
+    int releaseLease(@Param("ids") Collection<Long> ids, @Param("owner") String owner);
+
+    /**
+     * Marks a whole acknowledged batch as published with a single UPDATE statement.
+     * Only rows still leased by the caller are touched.
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE OutboxEvent e SET e.status = com.pizzaflow.inventory.domain.OutboxStatus.PUBLISHED, " +
+            "e.processedAt = :processedAt, e.lockedBy = NULL, e.lockedUntil = NULL " +
+            "WHERE e.id IN :ids AND e.lockedBy = :owner")
+    int markPublished(@Param("ids") Collection<Long> ids,
+                      @Param("processedAt") Instant processedAt,
+                      @Param("owner") String owner);
+
+    /**
+     * Moves a batch of events that were not acknowledged by the broker to FAILED.
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE OutboxEvent e SET e.status = com.pizzaflow.inventory.domain.OutboxStatus.FAILED, " +
+            "e.lockedBy = NULL, e.lockedUntil = NULL " +
+            "WHERE e.id IN :ids AND e.lockedBy = :owner")
+    int markFailed(@Param("ids") Collection<Long> ids, @Param("owner") String owner);
+
+    /**
+     * Records a failed retry attempt for a batch of events. Events that used
+     * up their last attempt are parked as DEAD, the rest stay FAILED.
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE OutboxEvent e SET e.retryCount = e.retryCount + 1, e.lastAttemptAt = :attemptedAt, " +
+            "e.status = CASE WHEN e.retryCount + 1 >= :maxRetries " +
+            "THEN com.pizzaflow.inventory.domain.OutboxStatus.DEAD " +
+            "ELSE com.pizzaflow.inventory.domain.OutboxStatus.FAILED END, " +
+            "e.lockedBy = NULL, e.lockedUntil = NULL " +
+            "WHERE e.id IN :ids AND e.lockedBy = :owner")
+    int incrementRetryCount(@Param("ids") Collection<Long> ids,
+                            @Param("attemptedAt") Instant attemptedAt,
+                            @Param("maxRetries") int maxRetries,
+                            @Param("owner") String owner);
+
+    /**
+     * Moves up to limit of the oldest DEAD events back to PENDING with a fresh
+     * retry budget. Optionally restricted to one event type.
+     *
+     * @return number of events revived
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE outbox_event SET status = 'PENDING', retry_count = 0, last_attempt_at = NULL, " +
+            "locked_by = NULL, locked_until = NULL " +
+            "WHERE (id, created_at) IN (SELECT id, created_at FROM outbox_event " +
+            "WHERE status = 'DEAD' AND (CAST(:eventType AS VARCHAR) IS NULL OR event_type = :eventType) " +
+            "ORDER BY created_at LIMIT :limit FOR UPDATE SKIP LOCKED)", nativeQuery = true)
+    int reviveDead(@Param("eventType") String eventType, @Param("limit") int limit);
 }
@@ -0,0 +1,120 @@
+package com.pizzaflow.inventory.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Partition DDL and catalog queries for the daily-partitioned outbox_event table.
+ * Partitions are named outbox_event_pYYYYMMDD and created by the
+ * create_outbox_partition function (V5 migration, replaced in V12).
+ */
+@Repository
+@RequiredArgsConstructor
+public class OutboxPartitionRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Creates the partition of one day unless it exists. Rows of that day that
+     * already landed in the default partition are moved into the new partition
+     * (V12 migration); the outbox table is locked while they are moved.
+     */
+    public void createPartition(LocalDate day) {
+        jdbcTemplate.queryForList("SELECT create_outbox_partition(?)", java.sql.Date.valueOf(day));
+    }
+
+    /**
+     * Lists the daily partitions attached to outbox_event, excluding the default partition.
+     */
+    public List<String> findDailyPartitions() {
+        return jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i " +
+                        "JOIN pg_class c ON c.oid = i.inhrelid " +
+                        "WHERE i.inhparent = 'outbox_event'::regclass AND c.relname LIKE 'outbox\\_event\\_p%' " +
+                        "ORDER BY c.relname",
+                String.class);
+    }
+
+    /**
+     * Checks whether a partition still holds events that have not been published,
+     * including parked DEAD ones. Served by the partial claim and DEAD indexes,
+     * so it stays cheap on large partitions.
+     */
+    public boolean hasUnpublishedEvents(String partition) {
+        Boolean exists = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM " + quote(partition) + " WHERE status IN ('PENDING', 'FAILED', 'DEAD'))",
+                Boolean.class);
+        return Boolean.TRUE.equals(exists);
+    }
+
+    public void dropPartition(String partition) {
+        jdbcTemplate.execute("DROP TABLE " + quote(partition));
+    }
+
+    /**
+     * Detaches a partition and moves it into the archive schema, keeping its rows.
+     */
+    public void archivePartition(String partition, String archiveSchema) {
+        jdbcTemplate.execute("ALTER TABLE outbox_event DETACH PARTITION " + quote(partition));
+        jdbcTemplate.execute("ALTER TABLE " + quote(partition) + " SET SCHEMA " + quote(archiveSchema));
+    }
+
+    /**
+     * Total on-disk size of all outbox partitions, including indexes and TOAST.
+     */
+    public long totalSizeBytes() {
+        Long size = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(pg_total_relation_size(i.inhrelid)), 0) FROM pg_inherits i " +
+                        "WHERE i.inhparent = 'outbox_event'::regclass",
+                Long.class);
+        return size != null ? size : 0L;
+    }
+
+    /**
+     * Age in seconds of the oldest PENDING event, or 0 when nothing is pending.
+     */
+    public double oldestPendingAgeSeconds() {
+        Double age = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(EXTRACT(EPOCH FROM (LOCALTIMESTAMP - MIN(created_at))), 0) " +
+                        "FROM outbox_event WHERE status = 'PENDING'",
+                Double.class);
+        return age != null ? age : 0d;
+    }
+
+    /**
+     * Number of outbox events per status. PENDING, FAILED and DEAD are counted
+     * exactly through their partial indexes, so the count does not touch
+     * PUBLISHED rows. PUBLISHED is estimated from the planner statistics of
+     * the partitions (pg_class.reltuples) minus the exact counts; it is only
+     * as fresh as the last (auto)analyze.
+     */
+    public Map<String, Long> countByStatus() {
+        Map<String, Long> counts = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT (SELECT COUNT(*) FROM outbox_event WHERE status = 'PENDING'), " +
+                        "(SELECT COUNT(*) FROM outbox_event WHERE status = 'FAILED'), " +
+                        "(SELECT COUNT(*) FROM outbox_event WHERE status = 'DEAD'), " +
+                        "(SELECT COALESCE(SUM(GREATEST(c.reltuples, 0)), 0)::BIGINT FROM pg_inherits i " +
+                        "JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = 'outbox_event'::regclass)",
+                rs -> {
+                    long pending = rs.getLong(1);
+                    long failed = rs.getLong(2);
+                    long dead = rs.getLong(3);
+                    counts.put("PENDING", pending);
+                    counts.put("FAILED", failed);
+                    counts.put("DEAD", dead);
+                    counts.put("PUBLISHED", Math.max(0, rs.getLong(4) - pending - failed - dead));
+                });
+        return counts;
+    }
+
+    private String quote(String identifier) {
+        return "\"" + identifier.replace("\"", "\"\"") + "\"";
+    }
+}
@@ -0,0 +1,57 @@
+package com.pizzaflow.inventory.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+@Repository
+@RequiredArgsConstructor
+public class ProcessedEventRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public Set<String> findExisting(String topic, Collection<String> keys) {
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT event_key FROM processed_event WHERE topic = ? AND event_key = ANY (?)",
+                String.class, topic, keys.toArray(String[]::new)));
+    }
+
+    /**
+     * Records the keys as processed. A key that another transaction recorded
+     * first (committed or still in flight) is not returned; the insert waits
+     * for an in-flight one to finish.
+     *
+     * @return the keys recorded by this call
+     */
+    public Set<String> insert(String topic, Collection<String> keys) {
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "INSERT INTO processed_event (topic, event_key) SELECT ?, k FROM unnest(?) AS k " +
+                        "ON CONFLICT DO NOTHING RETURNING event_key",
+                String.class, topic, keys.toArray(String[]::new)));
+    }
+
+    @Transactional(readOnly = true)
+    public void forEach(BiConsumer<String, String> consumer) {
+        // Inside a transaction the fetch size makes the driver use a cursor instead of buffering every row
+        jdbcTemplate.query(con -> {
+                    PreparedStatement ps = con.prepareStatement("SELECT topic, event_key FROM processed_event");
+                    ps.setFetchSize(10_000);
+                    return ps;
+                },
+                rs -> {
+                    consumer.accept(rs.getString(1), rs.getString(2));
+                });
+    }
+
+    public int deleteOlderThanDays(int days) {
+        return jdbcTemplate.update(
+                "DELETE FROM processed_event WHERE processed_at < LOCALTIMESTAMP - ? * INTERVAL '1 day'", days);
+    }
+}
@@ -0,0 +1,63 @@
+package com.pizzaflow.inventory.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+@RequiredArgsConstructor
+public class RecipeRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public List<RecipeLine> findAll() {
+        return jdbcTemplate.query(
+                "SELECT product_id, ingredient_id, quantity FROM recipe_line",
+                (rs, rowNum) -> new RecipeLine(rs.getString(1), rs.getString(2), rs.getInt(3)));
+    }
+
+    /**
+     * @return ingredientId -> quantity, empty if the product has no recipe
+     */
+    public Map<String, Integer> findByProductId(String productId) {
+        Map<String, Integer> ingredients = new LinkedHashMap<>();
+        jdbcTemplate.query(
+                "SELECT ingredient_id, quantity FROM recipe_line WHERE product_id = ? ORDER BY ingredient_id",
+                rs -> {
+                    ingredients.put(rs.getString(1), rs.getInt(2));
+                },
+                productId);
+        return ingredients;
+    }
+
+    public long version() {
+        return jdbcTemplate.queryForObject("SELECT version FROM recipe_book_version WHERE id = 1", Long.class);
+    }
+
+    /**
+     * Replaces the recipe of a product; an empty map removes it. Must run
+     * inside the caller's transaction.
+     */
+    public void replace(String productId, Map<String, Integer> ingredients) {
+        jdbcTemplate.update("DELETE FROM recipe_line WHERE product_id = ?", productId);
+        List<Map.Entry<String, Integer>> lines = List.copyOf(ingredients.entrySet());
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO recipe_line (product_id, ingredient_id, quantity) VALUES (?, ?, ?)",
+                lines, lines.size(), (ps, line) -> {
+                    ps.setString(1, productId);
+                    ps.setString(2, line.getKey());
+                    ps.setInt(3, line.getValue());
+                });
+        jdbcTemplate.update("UPDATE recipe_book_version SET version = version + 1 WHERE id = 1");
+    }
+
+    /**
+     * One unit of productId uses quantity units of the stock item ingredientId.
+     */
+    public record RecipeLine(String productId, String ingredientId, int quantity) {
+    }
+}
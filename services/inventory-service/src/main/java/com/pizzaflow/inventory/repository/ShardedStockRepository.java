@@ -0,0 +1,179 @@
+package com.pizzaflow.inventory.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Stock statements for sharded inventory items. The stock of such an item is
+ * split over inventory_item_shard rows so concurrent reservations update
+ * different rows instead of queueing on the single inventory_item row.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ShardedStockRepository {
+
+    private static final String RESERVE_ON_SHARD =
+            "UPDATE inventory_item_shard s SET reserved_quantity = s.reserved_quantity + ? " +
+                    "FROM (SELECT inventory_item_id, shard_no FROM inventory_item_shard " +
+                    "WHERE inventory_item_id = (SELECT id FROM inventory_item WHERE product_id = ? AND shard_count > 0) " +
+                    "AND quantity - reserved_quantity >= ? %s) pick " +
+                    "WHERE s.inventory_item_id = pick.inventory_item_id AND s.shard_no = pick.shard_no " +
+                    "RETURNING s.shard_no";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Reserves the quantity on one shard with enough stock. A random unlocked
+     * shard is tried first; only if every shard with stock is busy does the
+     * call wait for the fullest one.
+     *
+     * @return the shard the stock was taken from, or null if the product is
+     * not sharded or no single shard can serve the quantity
+     */
+    public Integer reserve(String productId, int quantity) {
+        Integer shardNo = reserveOnShard(productId, quantity, "ORDER BY random() LIMIT 1 FOR UPDATE SKIP LOCKED");
+        if (shardNo == null) {
+            shardNo = reserveOnShard(productId, quantity,
+                    "ORDER BY quantity - reserved_quantity DESC LIMIT 1 FOR UPDATE");
+        }
+        return shardNo;
+    }
+
+    public void release(Long itemId, int shardNo, int quantity) {
+        jdbcTemplate.update(
+                "UPDATE inventory_item_shard SET reserved_quantity = GREATEST(0, reserved_quantity - ?) " +
+                        "WHERE inventory_item_id = ? AND shard_no = ?",
+                quantity, itemId, shardNo);
+    }
+
+    /**
+     * Release variant for callers that only know the product, e.g. when undoing
+     * a reservation made in the same transaction.
+     */
+    public void release(String productId, int shardNo, int quantity) {
+        jdbcTemplate.update(
+                "UPDATE inventory_item_shard SET reserved_quantity = GREATEST(0, reserved_quantity - ?) " +
+                        "WHERE inventory_item_id = (SELECT id FROM inventory_item WHERE product_id = ?) AND shard_no = ?",
+                quantity, productId, shardNo);
+    }
+
+    public void commit(Long itemId, int shardNo, int quantity) {
+        jdbcTemplate.update(
+                "UPDATE inventory_item_shard SET quantity = quantity - ?, reserved_quantity = reserved_quantity - ? " +
+                        "WHERE inventory_item_id = ? AND shard_no = ?",
+                quantity, quantity, itemId, shardNo);
+    }
+
+    /**
+     * Splits an item's stock into shardCount shards. Existing reservations stay
+     * on shard 0 (reservations without a shard_no are served from it); the
+     * available stock is spread evenly.
+     *
+     * @return false if the item does not exist or is already sharded
+     */
+    @Transactional
+    public boolean createShards(Long itemId, int shardCount) {
+        List<int[]> rows = jdbcTemplate.query(
+                "SELECT quantity, reserved_quantity FROM inventory_item WHERE id = ? AND shard_count = 0 FOR UPDATE",
+                (rs, rowNum) -> new int[]{rs.getInt(1), rs.getInt(2)}, itemId);
+        if (rows.isEmpty()) {
+            return false;
+        }
+
+        int quantity = rows.get(0)[0];
+        int reserved = rows.get(0)[1];
+        int[] available = spread(quantity - reserved, shardCount);
+
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO inventory_item_shard (inventory_item_id, shard_no, quantity, reserved_quantity) " +
+                        "VALUES (?, ?, ?, ?)",
+                shardNumbers(shardCount), shardCount, (ps, shardNo) -> {
+                    int shardReserved = shardNo == 0 ? reserved : 0;
+                    ps.setLong(1, itemId);
+                    ps.setInt(2, shardNo);
+                    ps.setInt(3, shardReserved + available[shardNo]);
+                    ps.setInt(4, shardReserved);
+                });
+        jdbcTemplate.update("UPDATE inventory_item SET shard_count = ?, version = version + 1 WHERE id = ?",
+                shardCount, itemId);
+        return true;
+    }
+
+    public List<Long> findShardedItemIds() {
+        return jdbcTemplate.queryForList("SELECT id FROM inventory_item WHERE shard_count > 0", Long.class);
+    }
+
+    /**
+     * Moves available stock from full shards to drained ones. Shards currently
+     * locked by reservations are skipped and left alone until the next run.
+     * Total quantity is preserved; nothing happens unless some shard has fallen
+     * below half of the mean available stock.
+     *
+     * @return true if stock was moved
+     */
+    @Transactional
+    public boolean rebalance(Long itemId) {
+        List<int[]> shards = jdbcTemplate.query(
+                "SELECT shard_no, quantity, reserved_quantity FROM inventory_item_shard " +
+                        "WHERE inventory_item_id = ? ORDER BY shard_no FOR UPDATE SKIP LOCKED",
+                (rs, rowNum) -> new int[]{rs.getInt(1), rs.getInt(2), rs.getInt(3)}, itemId);
+        if (shards.size() < 2) {
+            return false;
+        }
+
+        int totalAvailable = shards.stream().mapToInt(s -> s[1] - s[2]).sum();
+        int mean = totalAvailable / shards.size();
+        boolean skewed = mean > 0 && shards.stream().anyMatch(s -> s[1] - s[2] < mean / 2);
+        if (!skewed) {
+            return false;
+        }
+
+        int[] available = spread(totalAvailable, shards.size());
+        jdbcTemplate.batchUpdate(
+                "UPDATE inventory_item_shard SET quantity = ? WHERE inventory_item_id = ? AND shard_no = ?",
+                shardNumbers(shards.size()), shards.size(), (ps, i) -> {
+                    int[] shard = shards.get(i);
+                    ps.setInt(1, shard[2] + available[i]);
+                    ps.setLong(2, itemId);
+                    ps.setInt(3, shard[0]);
+                });
+        return true;
+    }
+
+    /**
+     * Copies the shard totals into inventory_item so reads keep seeing the
+     * aggregate stock. Only writes when the totals actually changed.
+     */
+    public void syncAggregate(Long itemId) {
+        jdbcTemplate.update(
+                "UPDATE inventory_item i SET quantity = s.quantity, reserved_quantity = s.reserved, " +
+                        "version = i.version + 1, updated_at = CURRENT_TIMESTAMP " +
+                        "FROM (SELECT SUM(quantity) AS quantity, SUM(reserved_quantity) AS reserved " +
+                        "FROM inventory_item_shard WHERE inventory_item_id = ?) s " +
+                        "WHERE i.id = ? AND (i.quantity, i.reserved_quantity) IS DISTINCT FROM (s.quantity, s.reserved)",
+                itemId, itemId);
+    }
+
+    private Integer reserveOnShard(String productId, int quantity, String pickClause) {
+        List<Integer> shardNos = jdbcTemplate.queryForList(
+                RESERVE_ON_SHARD.formatted(pickClause), Integer.class, quantity, productId, quantity);
+        return shardNos.isEmpty() ? null : shardNos.get(0);
+    }
+
+    private static int[] spread(int total, int parts) {
+        int[] result = new int[parts];
+        for (int i = 0; i < parts; i++) {
+            result[i] = total / parts + (i < total % parts ? 1 : 0);
+        }
+        return result;
+    }
+
+    private static List<Integer> shardNumbers(int count) {
+        return IntStream.range(0, count).boxed().toList();
+    }
+}
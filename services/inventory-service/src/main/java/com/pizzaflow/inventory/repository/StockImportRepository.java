@@ -0,0 +1,192 @@
+package com.pizzaflow.inventory.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Bulk stock import through PostgreSQL COPY. Rows are streamed into a
+ * session-local staging table and merged into inventory_item with a single
+ * upsert. All methods must run inside one transaction: the staging table is
+ * dropped on commit.
+ */
+@Repository
+@RequiredArgsConstructor
+public class StockImportRepository {
+
+    private static final String COPY_COLUMNS = "inventory_import (product_id, product_name, quantity, unit)";
+
+    // Last line per product wins
+    private static final String LATEST_ROWS = "latest AS (SELECT DISTINCT ON (product_id) " +
+            "product_id, product_name, quantity, unit FROM inventory_import ORDER BY product_id, line_no DESC)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Creates the staging table. Its constraints mirror the bean validation
+     * of {@code CreateInventoryItemRequest}, so CSV rows are held to the same
+     * rules as items created through the API.
+     */
+    public void createStagingTable() {
+        jdbcTemplate.execute(
+                "CREATE TEMP TABLE inventory_import (" +
+                        "line_no BIGSERIAL, " +
+                        "product_id VARCHAR(100) NOT NULL CHECK (btrim(product_id) <> ''), " +
+                        "product_name VARCHAR(255) NOT NULL CHECK (btrim(product_name) <> ''), " +
+                        "quantity INTEGER NOT NULL CHECK (quantity >= 0), " +
+                        "unit VARCHAR(50) NOT NULL CHECK (btrim(unit) <> '')" +
+                        ") ON COMMIT DROP");
+    }
+
+    /**
+     * Streams CSV with a header line (product_id,product_name,quantity,unit)
+     * straight into the staging table; the data is never parsed in Java.
+     * HEADER MATCH (PostgreSQL 15+) fails the COPY unless the header names
+     * exactly these columns in this order, so a file with reordered columns
+     * cannot load quantities into the wrong fields.
+     *
+     * @return number of rows copied
+     */
+    public long copyCsv(InputStream csv) {
+        return jdbcTemplate.execute((ConnectionCallback<Long>) con -> {
+            try {
+                return con.unwrap(PGConnection.class).getCopyAPI()
+                        .copyIn("COPY " + COPY_COLUMNS + " FROM STDIN WITH (FORMAT csv, HEADER MATCH)", csv, 65536);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Opens a COPY the caller feeds row by row, for input that has to be
+     * converted first.
+     */
+    public long copyRows(RowSource source) {
+        return jdbcTemplate.execute((ConnectionCallback<Long>) con -> {
+            CopyIn copyIn = con.unwrap(PGConnection.class).getCopyAPI()
+                    .copyIn("COPY " + COPY_COLUMNS + " FROM STDIN WITH (FORMAT csv)");
+            try {
+                CsvRowWriter writer = new CsvRowWriter(copyIn);
+                source.writeTo(writer);
+                writer.flush();
+                return copyIn.endCopy();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+            }
+        });
+    }
+
+    /**
+     * Merges the staging table into inventory_item. The last line wins for a
+     * product listed twice. Existing items get the imported name, unit and
+     * quantity. Two kinds of rows are not applied: rows whose quantity is
+     * below the stock already reserved (the file would oversell), and rows of
+     * sharded items, whose stock lives on the shards. See
+     * {@link #findNotApplied}.
+     *
+     * @return number of inserted and updated items
+     */
+    public UpsertCounts upsert() {
+        return jdbcTemplate.queryForObject(
+                "WITH " + LATEST_ROWS + ", upserted AS (" +
+                        "INSERT INTO inventory_item (product_id, product_name, quantity, reserved_quantity, unit) " +
+                        "SELECT product_id, product_name, quantity, 0, unit FROM latest " +
+                        "ON CONFLICT (product_id) DO UPDATE SET product_name = EXCLUDED.product_name, " +
+                        "quantity = EXCLUDED.quantity, unit = EXCLUDED.unit, " +
+                        "version = inventory_item.version + 1, updated_at = CURRENT_TIMESTAMP " +
+                        "WHERE inventory_item.shard_count = 0 AND EXCLUDED.quantity >= inventory_item.reserved_quantity " +
+                        "RETURNING (xmax = 0) AS inserted) " +
+                        "SELECT COUNT(*) FILTER (WHERE inserted), COUNT(*) FILTER (WHERE NOT inserted) FROM upserted",
+                (rs, rowNum) -> new UpsertCounts(rs.getLong(1), rs.getLong(2)));
+    }
+
+    /**
+     * Products of the import that {@link #upsert} left untouched, with the
+     * reason. Must run after the upsert in the same transaction.
+     */
+    public List<NotApplied> findNotApplied() {
+        return jdbcTemplate.query(
+                "WITH " + LATEST_ROWS + " " +
+                        "SELECT l.product_id, i.shard_count > 0, l.quantity, i.reserved_quantity FROM latest l " +
+                        "JOIN inventory_item i ON i.product_id = l.product_id " +
+                        "WHERE i.shard_count > 0 OR l.quantity < i.reserved_quantity ORDER BY l.product_id",
+                (rs, rowNum) -> new NotApplied(rs.getString(1), rs.getBoolean(2), rs.getInt(3), rs.getInt(4)));
+    }
+
+    public record UpsertCounts(long inserted, long updated) {
+    }
+
+    /**
+     * An imported product that was not applied: either a sharded item, or an
+     * item whose imported quantity is below its reserved stock.
+     */
+    public record NotApplied(String productId, boolean sharded, int importedQuantity, int reservedQuantity) {
+    }
+
+    @FunctionalInterface
+    public interface RowSource {
+        void writeTo(CsvRowWriter writer) throws IOException;
+    }
+
+    /**
+     * Buffers CSV rows and hands them to the COPY in 64 KB chunks.
+     */
+    public static final class CsvRowWriter {
+
+        private final CopyIn copyIn;
+        private final StringBuilder buffer = new StringBuilder(65536);
+
+        private CsvRowWriter(CopyIn copyIn) {
+            this.copyIn = copyIn;
+        }
+
+        public void write(String productId, String productName, Integer quantity, String unit) throws IOException {
+            field(productId).append(',');
+            field(productName).append(',');
+            if (quantity != null) {
+                buffer.append(quantity);
+            }
+            buffer.append(',');
+            field(unit).append('\n');
+            if (buffer.length() >= 65536) {
+                flush();
+            }
+        }
+
+        private StringBuilder field(String value) {
+            // An unquoted empty field is NULL in COPY csv, so NOT NULL columns reject missing values
+            if (value != null) {
+                buffer.append('"').append(value.replace("\"", "\"\"")).append('"');
+            }
+            return buffer;
+        }
+
+        private void flush() throws IOException {
+            if (buffer.isEmpty()) {
+                return;
+            }
+            byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+            try {
+                copyIn.writeToCopy(bytes, 0, bytes.length);
+            } catch (SQLException e) {
+                throw new IOException(e);
+            }
+            buffer.setLength(0);
+        }
+    }
+}
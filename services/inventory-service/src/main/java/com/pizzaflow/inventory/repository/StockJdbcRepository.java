@@ -0,0 +1,297 @@
+package com.pizzaflow.inventory.repository;
+
+import com.pizzaflow.inventory.domain.ReservationStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Set-based stock statements that bypass the JPA entity lifecycle.
+ * Write methods send their statements as one JDBC batch and must run inside
+ * the caller's transaction.
+ */
+@Repository
+@RequiredArgsConstructor
+public class StockJdbcRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Reserves every line with a guarded UPDATE that only succeeds while enough
+     * stock is available, so no read-modify-write cycle or optimistic retry is
+     * needed. The version column is bumped to keep entity-based updates honest.
+     * Sharded items never match; their stock is reserved through
+     * {@link ShardedStockRepository}.
+     *
+     * @param lines productId -> quantity, in the order rows should be locked
+     * @return per-line update counts; 0 means the product is unknown, short or sharded
+     */
+    public int[] reserve(List<Map.Entry<String, Integer>> lines) {
+        return jdbcTemplate.batchUpdate(
+                "UPDATE inventory_item SET reserved_quantity = reserved_quantity + ?, " +
+                        "version = version + 1, updated_at = CURRENT_TIMESTAMP " +
+                        "WHERE product_id = ? AND shard_count = 0 AND quantity - reserved_quantity >= ?",
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Map.Entry<String, Integer> line = lines.get(i);
+                        ps.setInt(1, line.getValue());
+                        ps.setString(2, line.getKey());
+                        ps.setInt(3, line.getValue());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return lines.size();
+                    }
+                });
+    }
+
+    /**
+     * Gives reserved quantities back, never letting reserved_quantity drop below zero.
+     */
+    public void release(List<Map.Entry<String, Integer>> lines) {
+        if (lines.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(
+                "UPDATE inventory_item SET reserved_quantity = GREATEST(0, reserved_quantity - ?), " +
+                        "version = version + 1, updated_at = CURRENT_TIMESTAMP " +
+                        "WHERE product_id = ? AND shard_count = 0",
+                lines, lines.size(), (ps, line) -> {
+                    ps.setInt(1, line.getValue());
+                    ps.setString(2, line.getKey());
+                });
+    }
+
+    /**
+     * Locks the inventory rows of the given unsharded products in productId
+     * order and returns their available stock.
+     *
+     * @return productId -> available quantity; unknown and sharded products are absent
+     */
+    public Map<String, Integer> lockAvailable(Collection<String> productIds) {
+        Map<String, Integer> available = new HashMap<>();
+        if (productIds.isEmpty()) {
+            return available;
+        }
+        jdbcTemplate.query(
+                "SELECT product_id, quantity - reserved_quantity FROM inventory_item " +
+                        "WHERE product_id = ANY (?) AND shard_count = 0 ORDER BY product_id FOR UPDATE",
+                rs -> {
+                    available.put(rs.getString(1), rs.getInt(2));
+                },
+                (Object) productIds.toArray(String[]::new));
+        return available;
+    }
+
+    /**
+     * Adds the summed quantities of many orders to reserved_quantity with one
+     * statement per product. The rows must already be locked by
+     * {@link #lockAvailable} and the totals checked against the stock it returned.
+     *
+     * @param totals productId -> quantity, in the order rows were locked
+     */
+    public void reserveLocked(List<Map.Entry<String, Integer>> totals) {
+        jdbcTemplate.batchUpdate(
+                "UPDATE inventory_item SET reserved_quantity = reserved_quantity + ?, " +
+                        "version = version + 1, updated_at = CURRENT_TIMESTAMP WHERE product_id = ?",
+                totals, totals.size(), (ps, line) -> {
+                    ps.setInt(1, line.getValue());
+                    ps.setString(2, line.getKey());
+                });
+    }
+
+    /**
+     * Inserts one RESERVED stock_reservation row per line for the given order.
+     *
+     * @param shardNos productId -> shard the stock was taken from, for sharded items
+     * @param ttlMs    time until the reservation expires, null for no expiry
+     */
+    public void insertReservations(Long orderId, List<Map.Entry<String, Integer>> lines,
+                                   Map<String, Integer> shardNos, Long ttlMs) {
+        insertReservations(lines.stream()
+                .map(line -> new ReservationLine(orderId, line.getKey(), line.getValue(),
+                        shardNos.get(line.getKey())))
+                .toList(), ttlMs);
+    }
+
+    /**
+     * Inserts RESERVED stock_reservation rows for any number of orders as one batch.
+     *
+     * @param ttlMs time until the reservations expire, null for no expiry
+     */
+    public void insertReservations(List<ReservationLine> lines, Long ttlMs) {
+        if (lines.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO stock_reservation (order_id, inventory_item_id, quantity, status, shard_no, " +
+                        "expires_at, created_at, updated_at) " +
+                        "SELECT ?, id, ?, 'RESERVED', ?, LOCALTIMESTAMP + CAST(? AS BIGINT) * INTERVAL '1 millisecond', " +
+                        "CURRENT_TIMESTAMP, CURRENT_TIMESTAMP " +
+                        "FROM inventory_item WHERE product_id = ?",
+                lines, lines.size(), (ps, line) -> {
+                    ps.setLong(1, line.orderId());
+                    ps.setInt(2, line.quantity());
+                    ps.setObject(3, line.shardNo(), Types.INTEGER);
+                    ps.setObject(4, ttlMs, Types.BIGINT);
+                    ps.setString(5, line.productId());
+                });
+    }
+
+    /**
+     * Moves the RESERVED reservations of the given orders to a final status.
+     * The status change is the claim: a reservation is handed out to exactly
+     * one caller even if several transactions end the same orders.
+     *
+     * @param status  RELEASED, EXPIRED or CONFIRMED
+     * @param dueOnly only end reservations whose expires_at has passed
+     * @return the reservations that were ended; their stock still has to be given back or committed
+     */
+    public List<EndedReservation> endReservations(Collection<Long> orderIds, ReservationStatus status,
+                                                  boolean dueOnly) {
+        return jdbcTemplate.query(
+                "UPDATE stock_reservation r SET status = ?, updated_at = CURRENT_TIMESTAMP " +
+                        "FROM inventory_item i WHERE i.id = r.inventory_item_id " +
+                        "AND r.order_id = ANY (?) AND r.status = 'RESERVED'" +
+                        (dueOnly ? " AND r.expires_at <= LOCALTIMESTAMP" : "") +
+                        " RETURNING r.order_id, r.inventory_item_id, r.quantity, r.shard_no, i.shard_count > 0",
+                (rs, rowNum) -> new EndedReservation(rs.getLong(1), rs.getLong(2), rs.getInt(3),
+                        (Integer) rs.getObject(4), rs.getBoolean(5)),
+                status.name(), orderIds.toArray(Long[]::new));
+    }
+
+    /**
+     * Gives reserved quantities of unsharded items back with one statement per
+     * item, never letting reserved_quantity drop below zero.
+     *
+     * @param quantities inventoryItemId -> quantity, in the order rows should be locked
+     */
+    public void releaseItems(Map<Long, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<Long, Integer>> rows = List.copyOf(quantities.entrySet());
+        jdbcTemplate.batchUpdate(
+                "UPDATE inventory_item SET reserved_quantity = GREATEST(0, reserved_quantity - ?), " +
+                        "version = version + 1, updated_at = CURRENT_TIMESTAMP " +
+                        "WHERE id = ? AND shard_count = 0",
+                rows, rows.size(), (ps, row) -> {
+                    ps.setInt(1, row.getValue());
+                    ps.setLong(2, row.getKey());
+                });
+    }
+
+    /**
+     * Takes committed reservations out of stock for good: quantity and
+     * reserved_quantity of each unsharded item drop by the same amount, with
+     * one statement per item.
+     *
+     * @param quantities inventoryItemId -> quantity, in the order rows should be locked
+     */
+    public void commitItems(Map<Long, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<Long, Integer>> rows = List.copyOf(quantities.entrySet());
+        jdbcTemplate.batchUpdate(
+                "UPDATE inventory_item SET quantity = quantity - ?, reserved_quantity = reserved_quantity - ?, " +
+                        "version = version + 1, updated_at = CURRENT_TIMESTAMP " +
+                        "WHERE id = ? AND shard_count = 0",
+                rows, rows.size(), (ps, row) -> {
+                    ps.setInt(1, row.getValue());
+                    ps.setInt(2, row.getValue());
+                    ps.setLong(3, row.getKey());
+                });
+    }
+
+    /**
+     * Serializes the reservation of orders with the handling of their payment
+     * outcome until the caller's transaction ends. order.created and the
+     * payment events are consumed in parallel, so without this a payment
+     * recorded while the reservation is being inserted would see no rows and
+     * the reservation would not see the payment. Locks are taken in orderId
+     * order; the order ID is the advisory lock key.
+     */
+    public void lockOrders(Collection<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.query("SELECT pg_advisory_xact_lock(order_id) FROM unnest(?) AS order_id",
+                rs -> {
+                },
+                (Object) orderIds.stream().sorted().distinct().toArray(Long[]::new));
+    }
+
+    /**
+     * Takes the reservations of a paid order off the expiry schedule.
+     */
+    public int clearExpiry(Long orderId) {
+        return jdbcTemplate.update(
+                "UPDATE stock_reservation SET expires_at = NULL, updated_at = CURRENT_TIMESTAMP " +
+                        "WHERE order_id = ? AND status = 'RESERVED' AND expires_at IS NOT NULL",
+                orderId);
+    }
+
+    /**
+     * Streams every order that still has an expiring reservation, with the
+     * time left until its earliest expiry (negative if already due).
+     */
+    @Transactional(readOnly = true)
+    public void forEachExpiringOrder(ExpiringOrderHandler handler) {
+        // Inside a transaction the fetch size makes the driver use a cursor instead of buffering every row
+        jdbcTemplate.query(con -> {
+                    PreparedStatement ps = con.prepareStatement(
+                            "SELECT order_id, CAST(EXTRACT(EPOCH FROM MIN(expires_at) - LOCALTIMESTAMP) * 1000 AS BIGINT) " +
+                                    "FROM stock_reservation WHERE status = 'RESERVED' AND expires_at IS NOT NULL " +
+                                    "GROUP BY order_id");
+                    ps.setFetchSize(10_000);
+                    return ps;
+                },
+                rs -> {
+                    handler.accept(rs.getLong(1), rs.getLong(2));
+                });
+    }
+
+    /**
+     * Orders with a RESERVED reservation that is overdue by more than graceMs,
+     * i.e. whose tracking instance has apparently not expired it.
+     */
+    public List<Long> findOverdueOrders(long graceMs, int limit) {
+        return jdbcTemplate.queryForList(
+                "SELECT DISTINCT order_id FROM stock_reservation WHERE status = 'RESERVED' " +
+                        "AND expires_at < LOCALTIMESTAMP - CAST(? AS BIGINT) * INTERVAL '1 millisecond' LIMIT ?",
+                Long.class, graceMs, limit);
+    }
+
+    /**
+     * One stock_reservation row to insert.
+     *
+     * @param shardNo shard the stock was taken from, null for unsharded items
+     */
+    public record ReservationLine(Long orderId, String productId, int quantity, Integer shardNo) {
+    }
+
+    /**
+     * A reservation moved to RELEASED or EXPIRED whose stock must be given back.
+     */
+    public record EndedReservation(Long orderId, Long inventoryItemId, int quantity, Integer shardNo,
+                                   boolean sharded) {
+    }
+
+    @FunctionalInterface
+    public interface ExpiringOrderHandler {
+        void accept(long orderId, long remainingMs);
+    }
+}
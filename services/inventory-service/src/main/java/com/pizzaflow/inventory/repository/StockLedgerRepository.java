@@ -0,0 +1,86 @@
+package com.pizzaflow.inventory.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Persistence side of the in-memory stock ledger: write-behind flushes and the
+ * reconciliation that rebuilds inventory_item counters from stock_reservation.
+ */
+@Repository
+@RequiredArgsConstructor
+public class StockLedgerRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Brings inventory_item in line with the durable reservation log after a
+     * restart: replays CONFIRMED reservations whose quantity decrement was still
+     * sitting in the write-behind buffer, then recomputes reserved_quantity from
+     * the RESERVED rows.
+     */
+    @Transactional
+    public void reconcile() {
+        jdbcTemplate.update(
+                "WITH applied AS (UPDATE stock_reservation SET quantity_applied = TRUE " +
+                        "WHERE NOT quantity_applied RETURNING inventory_item_id, quantity) " +
+                        "UPDATE inventory_item i SET quantity = i.quantity - a.total, " +
+                        "version = i.version + 1, updated_at = CURRENT_TIMESTAMP " +
+                        "FROM (SELECT inventory_item_id, SUM(quantity) AS total FROM applied " +
+                        "GROUP BY inventory_item_id) a WHERE i.id = a.inventory_item_id");
+        jdbcTemplate.update(
+                "UPDATE inventory_item i SET reserved_quantity = COALESCE((SELECT SUM(r.quantity) " +
+                        "FROM stock_reservation r WHERE r.inventory_item_id = i.id AND r.status = 'RESERVED'), 0), " +
+                        "version = i.version + 1, updated_at = CURRENT_TIMESTAMP");
+    }
+
+    /**
+     * Marks a reservation CONFIRMED whose quantity decrement is applied later by
+     * the write-behind flush.
+     *
+     * @return true if the reservation was still RESERVED
+     */
+    public boolean markCommitted(Long reservationId) {
+        return jdbcTemplate.update(
+                "UPDATE stock_reservation SET status = 'CONFIRMED', quantity_applied = FALSE, " +
+                        "updated_at = CURRENT_TIMESTAMP WHERE id = ? AND status = 'RESERVED'",
+                reservationId) > 0;
+    }
+
+    /**
+     * Applies aggregated counter deltas and settles the committed reservations
+     * they contain in one transaction, so a crash either loses both or neither.
+     */
+    @Transactional
+    public void applyFlush(List<ItemDelta> deltas, List<Long> appliedReservationIds) {
+        if (!deltas.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                    "UPDATE inventory_item SET reserved_quantity = GREATEST(0, reserved_quantity + ?), " +
+                            "quantity = quantity - ?, version = version + 1, updated_at = CURRENT_TIMESTAMP " +
+                            "WHERE id = ?",
+                    deltas, deltas.size(), (ps, delta) -> {
+                        ps.setLong(1, delta.reservedDelta());
+                        ps.setLong(2, delta.consumed());
+                        ps.setLong(3, delta.itemId());
+                    });
+        }
+        if (!appliedReservationIds.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                    "UPDATE stock_reservation SET quantity_applied = TRUE WHERE id = ?",
+                    appliedReservationIds, appliedReservationIds.size(), (ps, id) -> ps.setLong(1, id));
+        }
+    }
+
+    /**
+     * Net change of one inventory_item row since the last flush.
+     *
+     * @param reservedDelta change of reserved_quantity
+     * @param consumed      amount to subtract from quantity for committed reservations
+     */
+    public record ItemDelta(Long itemId, long reservedDelta, long consumed) {
+    }
+}
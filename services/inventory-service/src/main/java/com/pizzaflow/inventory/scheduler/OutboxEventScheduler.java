@@ -1,24 +1,39 @@
 package com.pizzaflow.inventory.scheduler;
 
+import com.pizzaflow.inventory.config.OutboxProperties;
 import com.pizzaflow.inventory.domain.OutboxEvent;
-import com.pizzaflow.inventory.domain.OutboxStatus;
 import com.pizzaflow.inventory.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Scheduled service that implements the Outbox Pattern for reliable event
  * publishing.
  * Polls pending/failed events from the outbox table and publishes them to
  * Kafka.
- * Runs every 5 seconds to ensure timely event delivery.
+ * Each page is sent as one batch: all records are handed to the producer at
+ * once, the relay waits for the broker acknowledgements together and only then
+ * writes the status changes back with one bulk UPDATE per outcome.
+ * Batches are leased with SELECT ... FOR UPDATE SKIP LOCKED, so several
+ * replicas drain disjoint parts of the outbox without publishing duplicates.
  */
 @Service
 @RequiredArgsConstructor
@@ -27,82 +42,116 @@ public class OutboxEventScheduler {
 
     private final OutboxEventRepository outboxEventRepository;
     private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final OutboxProperties outboxProperties;
+    private final OutboxMetrics outboxMetrics;
 
     private static final int MAX_RETRY_ATTEMPTS = 3;
 
+    // Lease owner of this relay instance
+    private final String relayId = UUID.randomUUID().toString();
+
     /**
      * Publishes pending and failed (retriable) events to Kafka topics.
      * Failed events are retried up to MAX_RETRY_ATTEMPTS times.
+     * With LISTEN/NOTIFY enabled this poll is only a safety net; pending events
+     * are normally drained by {@link OutboxNotificationListener} right after
+     * they are committed.
      */
-    @Scheduled(fixedDelay = 5000) // Run every 5 seconds
-    @Transactional
+    @Scheduled(fixedDelayString = "${inventory.outbox.poll-interval-ms:5000}")
     public void publishPendingEvents() {
-        List<OutboxEvent> pendingEvents = outboxEventRepository
-                .findTop100ByStatusOrderByCreatedAtAsc(OutboxStatus.PENDING);
+        drainPendingEvents();
+        retryFailedEvents();
+    }
 
-        if (!pendingEvents.isEmpty()) {
-            log.info("Publishing {} pending outbox events", pendingEvents.size());
-            publishEvents(pendingEvents);
-        }
+    /**
+     * Claims and publishes pending events batch by batch (up to
+     * maxBatchesPerRun batches) so a backlog does not wait for the next tick.
+     * Claims, status updates and lease releases each run in their own short
+     * transaction; no database transaction is held open while waiting for Kafka.
+     * Safe to call concurrently, claimed batches never overlap.
+     */
+    public void drainPendingEvents() {
+        Timer.Sample run = outboxMetrics.relayRunStarted();
+        int batchSize = outboxProperties.getBatchSize();
+        int batches = 0;
+        List<OutboxEvent> pendingEvents;
+        do {
+            pendingEvents = outboxEventRepository.claimPending(relayId, outboxProperties.getLeaseMs(), batchSize);
+            if (pendingEvents.isEmpty()) {
+                break;
+            }
 
-        // Retry failed events (with exponential backoff logic could be added here)
-        retryFailedEvents();
+            log.info("Publishing batch of {} pending outbox events", pendingEvents.size());
+            outboxMetrics.batch("pending", pendingEvents.size());
+            if (!publishEvents(pendingEvents)) {
+                break; // Broker is unhealthy, do not hammer it with the rest of the backlog
+            }
+            batches++;
+        } while (pendingEvents.size() == batchSize && batches < outboxProperties.getMaxBatchesPerRun());
+        outboxMetrics.relayRunFinished(run, "pending");
     }
 
     /**
      * Implements retry logic for events that previously failed to publish.
      * Uses exponential backoff: 5s, 30s, 120s retry intervals.
-     * Only retries events that haven't exceeded MAX_RETRY_ATTEMPTS.
+     * Only retries events that haven't exceeded MAX_RETRY_ATTEMPTS; events
+     * that fail their last attempt are moved to DEAD.
      */
     private void retryFailedEvents() {
-        List<OutboxEvent> failedEvents = outboxEventRepository
-                .findTop100ByStatusOrderByCreatedAtAsc(OutboxStatus.FAILED);
+        Timer.Sample run = outboxMetrics.relayRunStarted();
+        try {
+            retryDueFailedEvents();
+        } finally {
+            outboxMetrics.relayRunFinished(run, "retry");
+        }
+    }
+
+    private void retryDueFailedEvents() {
+        // Events that exceeded MAX_RETRY_ATTEMPTS are filtered out by the claim query
+        List<OutboxEvent> failedEvents = outboxEventRepository.claimFailed(
+                relayId, outboxProperties.getLeaseMs(), MAX_RETRY_ATTEMPTS, outboxProperties.getBatchSize());
 
         if (failedEvents.isEmpty()) {
             return;
         }
 
         log.info("Evaluating {} failed outbox events for retry", failedEvents.size());
-        int retriedCount = 0;
 
+        List<OutboxEvent> retriable = new ArrayList<>();
+        List<Long> notDue = new ArrayList<>();
         for (OutboxEvent event : failedEvents) {
-            // Check if max retry attempts exceeded
-            if (event.getRetryCount() >= MAX_RETRY_ATTEMPTS) {
-                log.warn("Event {} has exceeded max retry attempts ({}), skipping",
-                        event.getId(), MAX_RETRY_ATTEMPTS);
-                continue;
-            }
-
             // Exponential backoff: wait before retrying
-            if (!shouldRetryNow(event)) {
-                continue; // Skip this event, not enough time has passed
+            if (shouldRetryNow(event)) {
+                retriable.add(event);
+            } else {
+                notDue.add(event.getId());
             }
+        }
 
-            try {
-                String topic = mapEventTypeToTopic(event.getEventType());
-                kafkaTemplate.send(topic, event.getAggregateId(), event.getPayload());
-
-                event.setStatus(OutboxStatus.PUBLISHED);
-                event.setProcessedAt(Instant.now());
-                outboxEventRepository.save(event);
-
-                log.info("Successfully retried (attempt {}/{}) and published event {} to topic {}",
-                        event.getRetryCount() + 1, MAX_RETRY_ATTEMPTS, event.getId(), topic);
-                retriedCount++;
-
-            } catch (Exception e) {
-                // Increment retry count, update last attempt, keep status as FAILED
-                event.setRetryCount(event.getRetryCount() + 1);
-                event.setLastAttemptAt(Instant.now());
-                outboxEventRepository.save(event);
+        if (!notDue.isEmpty()) {
+            outboxEventRepository.releaseLease(notDue, relayId);
+        }
+        if (retriable.isEmpty()) {
+            return;
+        }
 
-                log.error("Retry attempt {}/{} failed for event {}: {}",
-                        event.getRetryCount(), MAX_RETRY_ATTEMPTS, event.getId(), e.getMessage());
-            }
+        outboxMetrics.batch("retry", retriable.size());
+        BatchOutcome outcome = sendBatch(retriable);
+        Instant now = Instant.now();
+        Set<Long> publishedIds = new HashSet<>(outcome.published());
+        for (OutboxEvent event : retriable) {
+            outboxMetrics.retry(event.getRetryCount() + 1, publishedIds.contains(event.getId()));
         }
 
-        if (retriedCount > 0) {
-            log.info("Retried {} events with exponential backoff", retriedCount);
+        if (!outcome.published().isEmpty()) {
+            outboxEventRepository.markPublished(outcome.published(), now, relayId);
+            log.info("Retried and published {} events with exponential backoff", outcome.published().size());
+        }
+        if (!outcome.failed().isEmpty()) {
+            // Increment retry count, update last attempt, keep status as FAILED
+            // Events on their last attempt are parked as DEAD and leave the claim query for good
+            outboxEventRepository.incrementRetryCount(outcome.failed(), now, MAX_RETRY_ATTEMPTS, relayId);
+            log.error("Retry attempt failed for {} events: {}", outcome.failed().size(), outcome.failed());
         }
     }
 
@@ -144,32 +193,87 @@ public class OutboxEventScheduler {
         };
     }
 
-    private void publishEvents(List<OutboxEvent> events) {
-        for (OutboxEvent event : events) {
-            try {
-                String topic = mapEventTypeToTopic(event.getEventType());
+    /**
+     * Publishes a page of pending events and writes the outcome back in bulk.
+     *
+     * @param events The events to publish
+     * @return true if every event in the page was acknowledged by the broker
+     */
+    private boolean publishEvents(List<OutboxEvent> events) {
+        BatchOutcome outcome = sendBatch(events);
 
-                kafkaTemplate.send(topic, event.getAggregateId(), event.getPayload());
+        if (!outcome.published().isEmpty()) {
+            outboxEventRepository.markPublished(outcome.published(), Instant.now(), relayId);
+            log.info("Published {} outbox events", outcome.published().size());
+        }
+        if (!outcome.failed().isEmpty()) {
+            outboxEventRepository.markFailed(outcome.failed(), relayId);
+            log.error("Failed to publish {} outbox events: {}", outcome.failed().size(), outcome.failed());
+        }
+        return outcome.failed().isEmpty();
+    }
 
-                event.setStatus(OutboxStatus.PUBLISHED);
-                event.setProcessedAt(Instant.now());
-                outboxEventRepository.save(event);
+    /**
+     * Hands every event of the batch to the producer, flushes it and waits for
+     * all broker acknowledgements together. An event only counts as published
+     * once its send future completed successfully.
+     */
+    private BatchOutcome sendBatch(List<OutboxEvent> events) {
+        Map<Long, CompletableFuture<SendResult<String, Object>>> sends = new LinkedHashMap<>(events.size() * 2);
+        for (OutboxEvent event : events) {
+            String topic = mapEventTypeToTopic(event.getEventType());
+            long sentAt = System.nanoTime();
+            try {
+                CompletableFuture<SendResult<String, Object>> send =
+                        kafkaTemplate.send(topic, event.getAggregateId(), event.getPayload());
+                send.whenComplete((result, error) ->
+                        outboxMetrics.ack(topic, System.nanoTime() - sentAt, error == null));
+                sends.put(event.getId(), send);
+            } catch (Exception e) {
+                sends.put(event.getId(), CompletableFuture.failedFuture(e));
+            }
+        }
+        kafkaTemplate.flush();
 
-                log.info("Published event {} to topic {}", event.getId(), topic);
+        try {
+            CompletableFuture.allOf(sends.values().toArray(CompletableFuture[]::new))
+                    .get(outboxProperties.getAckTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            log.warn("Broker rejected part of the outbox batch: {}", e.getCause().getMessage());
+        } catch (TimeoutException e) {
+            log.warn("Timed out after {} ms waiting for outbox batch acknowledgements",
+                    outboxProperties.getAckTimeoutMs());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while waiting for outbox batch acknowledgements");
+        }
 
-            } catch (Exception e) {
-                log.error("Failed to publish event {}: {}", event.getId(), e.getMessage());
-                event.setStatus(OutboxStatus.FAILED);
-                outboxEventRepository.save(event);
+        Instant now = Instant.now();
+        List<Long> published = new ArrayList<>(events.size());
+        List<Long> failed = new ArrayList<>();
+        for (OutboxEvent event : events) {
+            CompletableFuture<SendResult<String, Object>> future = sends.get(event.getId());
+            String topic = mapEventTypeToTopic(event.getEventType());
+            if (future.isDone() && !future.isCompletedExceptionally()) {
+                published.add(event.getId());
+                outboxMetrics.eventPublished(topic, event.getCreatedAt(), now);
+            } else {
+                failed.add(event.getId());
+                outboxMetrics.eventFailed(topic);
             }
         }
+        return new BatchOutcome(published, failed);
     }
 
     private String mapEventTypeToTopic(String eventType) {
         return switch (eventType) {
             case "INVENTORY_RESERVED" -> "inventory.reserved";
             case "INVENTORY_UNAVAILABLE" -> "inventory.unavailable";
+            case "INVENTORY_EXPIRED" -> "inventory.expired";
             default -> "inventory.events";
         };
     }
+
+    private record BatchOutcome(List<Long> published, List<Long> failed) {
+    }
 }
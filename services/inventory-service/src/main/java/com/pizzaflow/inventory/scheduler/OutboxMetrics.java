@@ -0,0 +1,129 @@
+package com.pizzaflow.inventory.scheduler;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer meters of the outbox and its relay. Timers publish percentile
+ * histograms so lag and ack latency can be aggregated across instances.
+ * Meters tagged by topic, event type, phase or attempt are built once per
+ * tag value and kept in local maps, so recording an event is a map lookup
+ * and no builder or registry lookup runs on the hot path. The tag values
+ * come from small fixed sets.
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboxMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Counter> created = new ConcurrentHashMap<>();
+    private final Map<String, Counter> published = new ConcurrentHashMap<>();
+    private final Map<String, Counter> failed = new ConcurrentHashMap<>();
+    private final Map<String, Timer> publishLag = new ConcurrentHashMap<>();
+    private final Map<String, Timer> acked = new ConcurrentHashMap<>();
+    private final Map<String, Timer> ackErrors = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> batchSizes = new ConcurrentHashMap<>();
+    private final Map<Integer, Counter> retriesPublished = new ConcurrentHashMap<>();
+    private final Map<Integer, Counter> retriesFailed = new ConcurrentHashMap<>();
+    private final Map<String, Timer> relayRuns = new ConcurrentHashMap<>();
+
+    /**
+     * An event was written to the outbox.
+     */
+    public void eventCreated(String eventType) {
+        created.computeIfAbsent(eventType, type -> Counter.builder("outbox.events.created")
+                        .description("Events written to the outbox")
+                        .tag("event_type", type)
+                        .register(meterRegistry))
+                .increment();
+    }
+
+    /**
+     * An event was acknowledged by the broker and marked published.
+     */
+    public void eventPublished(String topic, Instant createdAt, Instant publishedAt) {
+        published.computeIfAbsent(topic, t -> Counter.builder("outbox.events.published")
+                        .description("Events acknowledged by the broker")
+                        .tag("topic", t)
+                        .register(meterRegistry))
+                .increment();
+        if (createdAt != null) {
+            publishLag.computeIfAbsent(topic, t -> Timer.builder("outbox.publish.lag")
+                            .description("Time from writing an event to the outbox until the broker acknowledged it")
+                            .tag("topic", t)
+                            .publishPercentileHistogram()
+                            .maximumExpectedValue(Duration.ofMinutes(10))
+                            .register(meterRegistry))
+                    .record(Duration.between(createdAt, publishedAt));
+        }
+    }
+
+    public void eventFailed(String topic) {
+        failed.computeIfAbsent(topic, t -> Counter.builder("outbox.events.failed")
+                        .description("Events the broker did not acknowledge in time or rejected")
+                        .tag("topic", t)
+                        .register(meterRegistry))
+                .increment();
+    }
+
+    /**
+     * Latency of a single send, from handing it to the producer until the ack.
+     */
+    public void ack(String topic, long nanos, boolean success) {
+        (success ? acked : ackErrors).computeIfAbsent(topic, t -> Timer.builder("outbox.ack.latency")
+                        .description("Time from handing an event to the producer until the broker answered")
+                        .tag("topic", t)
+                        .tag("outcome", success ? "ack" : "error")
+                        .publishPercentileHistogram()
+                        .register(meterRegistry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void batch(String phase, int size) {
+        batchSizes.computeIfAbsent(phase, p -> DistributionSummary.builder("outbox.batch.size")
+                        .description("Events per relay batch")
+                        .tag("phase", p)
+                        .publishPercentileHistogram()
+                        .maximumExpectedValue(10_000d)
+                        .register(meterRegistry))
+                .record(size);
+    }
+
+    /**
+     * Outcome of a retry, by attempt number (1 for the first retry).
+     */
+    public void retry(int attempt, boolean published) {
+        (published ? retriesPublished : retriesFailed).computeIfAbsent(attempt, a -> Counter.builder("outbox.retries")
+                        .description("Retry attempts of failed events by attempt number and outcome")
+                        .tag("attempt", String.valueOf(a))
+                        .tag("outcome", published ? "published" : "failed")
+                        .register(meterRegistry))
+                .increment();
+    }
+
+    /**
+     * Starts timing one relay run; stop the sample with {@link #relayRunFinished}.
+     */
+    public Timer.Sample relayRunStarted() {
+        return Timer.start(meterRegistry);
+    }
+
+    public void relayRunFinished(Timer.Sample sample, String phase) {
+        sample.stop(relayRuns.computeIfAbsent(phase, p -> Timer.builder("outbox.relay.run")
+                .description("Duration of one relay run")
+                .tag("phase", p)
+                .publishPercentileHistogram()
+                .register(meterRegistry)));
+    }
+}
@@ -0,0 +1,118 @@
+package com.pizzaflow.inventory.scheduler;
+
+import com.pizzaflow.inventory.config.OutboxProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Wakes the outbox relay as soon as a new outbox row is committed.
+ * InventoryService issues a NOTIFY in the same transaction that writes the
+ * outbox row; Postgres only delivers it on commit, so a rolled back event never
+ * wakes the relay. A dedicated thread holds one connection in LISTEN mode and
+ * drains pending events on every wake-up, coalescing notifications that arrive
+ * while a drain is running.
+ */
+@Component
+@ConditionalOnProperty(prefix = "inventory.outbox", name = "notify-enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxNotificationListener {
+
+    private static final int WAIT_TIMEOUT_MS = 1000;
+    private static final long RECONNECT_DELAY_MS = 5000;
+
+    private final DataSource dataSource;
+    private final OutboxEventScheduler outboxEventScheduler;
+    private final OutboxProperties outboxProperties;
+
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        running = true;
+        listenerThread = Thread.ofPlatform()
+                .name("outbox-notify-listener")
+                .daemon(true)
+                .start(this::listen);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+
+    private void listen() {
+        String channel = outboxProperties.getNotifyChannel();
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                connection.setAutoCommit(true);
+                execute(connection, "LISTEN " + channel);
+                try {
+                    PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                    log.info("Listening for outbox notifications on channel {}", channel);
+
+                    // Catch up on events committed while nobody was listening
+                    drain();
+
+                    while (running) {
+                        PGNotification[] notifications = pgConnection.getNotifications(WAIT_TIMEOUT_MS);
+                        if (notifications != null && notifications.length > 0) {
+                            drain();
+                        }
+                    }
+                } finally {
+                    // The connection goes back to the pool, do not leave it subscribed
+                    execute(connection, "UNLISTEN *");
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    break;
+                }
+                log.warn("Outbox notification listener lost its connection, reconnecting in {} ms: {}",
+                        RECONNECT_DELAY_MS, e.getMessage());
+                sleepBeforeReconnect();
+            }
+        }
+        log.info("Outbox notification listener stopped");
+    }
+
+    private void drain() {
+        try {
+            outboxEventScheduler.drainPendingEvents();
+        } catch (RuntimeException e) {
+            // The scheduled poll picks the events up again, keep listening
+            log.error("Outbox relay failed after notification", e);
+        }
+    }
+
+    private void execute(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private void sleepBeforeReconnect() {
+        try {
+            Thread.sleep(RECONNECT_DELAY_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
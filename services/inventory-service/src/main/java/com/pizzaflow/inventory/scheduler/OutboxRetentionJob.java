@@ -0,0 +1,151 @@
+package com.pizzaflow.inventory.scheduler;
+
+import com.pizzaflow.inventory.config.OutboxProperties;
+import com.pizzaflow.inventory.domain.OutboxStatus;
+import com.pizzaflow.inventory.repository.OutboxPartitionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Maintains the daily partitions of outbox_event.
+ * Future partitions are pre-created, moving rows of that day out of the
+ * default partition if needed; failures are counted in
+ * outbox.partition.create.failures. Partitions older than the retention
+ * window are dropped (or detached into the archive schema) as a whole, which
+ * costs the same no matter how many PUBLISHED rows they hold. A partition that
+ * still contains PENDING or FAILED events is never removed.
+ * Also exposes the outbox table size, the number of events per status and
+ * the age of the oldest pending event.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxRetentionJob {
+
+    private static final String PARTITION_PREFIX = "outbox_event_p";
+    private static final DateTimeFormatter PARTITION_DATE = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private final OutboxPartitionRepository outboxPartitionRepository;
+    private final OutboxProperties outboxProperties;
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicLong tableSizeBytes = new AtomicLong();
+    private final AtomicLong oldestPendingAgeMillis = new AtomicLong();
+    private final Map<OutboxStatus, AtomicLong> eventsByStatus = new EnumMap<>(OutboxStatus.class);
+    private Counter partitionFailures;
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("outbox.table.size", tableSizeBytes, AtomicLong::get)
+                .description("Total size of all outbox_event partitions")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("outbox.pending.oldest.age", oldestPendingAgeMillis, age -> age.get() / 1000.0)
+                .description("Age of the oldest PENDING outbox event")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        partitionFailures = Counter.builder("outbox.partition.create.failures")
+                .description("Daily outbox partitions that could not be pre-created; " +
+                        "their rows go to the default partition until this is fixed")
+                .register(meterRegistry);
+        for (OutboxStatus status : OutboxStatus.values()) {
+            AtomicLong count = new AtomicLong();
+            eventsByStatus.put(status, count);
+            Gauge.builder("outbox.events", count, AtomicLong::get)
+                    .description("Number of outbox events per status; PUBLISHED is a planner estimate")
+                    .tag("status", status.name())
+                    .register(meterRegistry);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        ensureFuturePartitions();
+    }
+
+    /**
+     * Daily maintenance: pre-create upcoming partitions, then expire old ones.
+     */
+    @Scheduled(cron = "${inventory.outbox.retention.cron:0 15 3 * * *}")
+    public void maintainPartitions() {
+        ensureFuturePartitions();
+        expireOldPartitions();
+    }
+
+    /**
+     * Refreshes the table gauges. Scrapes read the cached values, so a busy
+     * Prometheus does not turn into catalog queries against Postgres.
+     */
+    @Scheduled(fixedDelayString = "${inventory.outbox.retention.metrics-interval-ms:30000}")
+    public void refreshMetrics() {
+        try {
+            tableSizeBytes.set(outboxPartitionRepository.totalSizeBytes());
+            oldestPendingAgeMillis.set(Math.round(outboxPartitionRepository.oldestPendingAgeSeconds() * 1000));
+            Map<String, Long> counts = outboxPartitionRepository.countByStatus();
+            eventsByStatus.forEach((status, count) -> count.set(counts.getOrDefault(status.name(), 0L)));
+        } catch (Exception e) {
+            log.warn("Failed to refresh outbox table metrics: {}", e.getMessage());
+        }
+    }
+
+    private void ensureFuturePartitions() {
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i <= outboxProperties.getRetention().getPremakeDays(); i++) {
+            try {
+                outboxPartitionRepository.createPartition(today.plusDays(i));
+            } catch (Exception e) {
+                partitionFailures.increment();
+                log.error("Failed to create outbox partition for {}", today.plusDays(i), e);
+            }
+        }
+    }
+
+    private void expireOldPartitions() {
+        OutboxProperties.Retention retention = outboxProperties.getRetention();
+        LocalDate cutoff = LocalDate.now().minusDays(retention.getRetentionDays());
+
+        for (String partition : outboxPartitionRepository.findDailyPartitions()) {
+            LocalDate day = parsePartitionDate(partition);
+            if (day == null || !day.isBefore(cutoff)) {
+                continue;
+            }
+
+            if (outboxPartitionRepository.hasUnpublishedEvents(partition)) {
+                log.warn("Keeping outbox partition {}: it still holds unpublished events", partition);
+                continue;
+            }
+
+            if (retention.isArchive()) {
+                outboxPartitionRepository.archivePartition(partition, retention.getArchiveSchema());
+                log.info("Archived outbox partition {} into schema {}", partition, retention.getArchiveSchema());
+            } else {
+                outboxPartitionRepository.dropPartition(partition);
+                log.info("Dropped outbox partition {}", partition);
+            }
+        }
+    }
+
+    private LocalDate parsePartitionDate(String partition) {
+        try {
+            return LocalDate.parse(partition.substring(PARTITION_PREFIX.length()), PARTITION_DATE);
+        } catch (DateTimeParseException | IndexOutOfBoundsException e) {
+            log.warn("Skipping outbox partition with unexpected name: {}", partition);
+            return null;
+        }
+    }
+}
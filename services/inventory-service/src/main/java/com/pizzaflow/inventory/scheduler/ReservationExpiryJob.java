@@ -0,0 +1,95 @@
+package com.pizzaflow.inventory.scheduler;
+
+import com.pizzaflow.inventory.config.ReservationProperties;
+import com.pizzaflow.inventory.expiry.ReservationExpiryTracker;
+import com.pizzaflow.inventory.repository.StockJdbcRepository;
+import com.pizzaflow.inventory.service.InventoryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Releases the stock of reservations whose order was not paid within the TTL.
+ * Deadlines live in the {@link ReservationExpiryTracker}; on startup it is
+ * rebuilt from stock_reservation, so restarts do not lose any deadline.
+ * Deadlines tracked by an instance that dies are picked up by the periodic
+ * sweep of every surviving instance once they are overdue by the sweep grace.
+ * Due orders are released in batches of {@code inventory.reservation.expiry-batch-size}.
+ */
+@Service
+@ConditionalOnProperty(prefix = "inventory.reservation", name = "expiry-enabled", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class ReservationExpiryJob {
+
+    private static final long RETRY_DELAY_MS = 30_000;
+    private static final int SWEEP_LIMIT = 10_000;
+
+    private final ReservationExpiryTracker reservationExpiryTracker;
+    private final StockJdbcRepository stockJdbcRepository;
+    private final InventoryService inventoryService;
+    private final ReservationProperties reservationProperties;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        long now = System.currentTimeMillis();
+        long[] recovered = {0};
+        stockJdbcRepository.forEachExpiringOrder((orderId, remainingMs) -> {
+            reservationExpiryTracker.track(orderId, now + remainingMs);
+            recovered[0]++;
+        });
+        log.info("Recovered expiry deadlines for {} orders with open reservations", recovered[0]);
+    }
+
+    /**
+     * Schedules orders that are overdue beyond the grace period for immediate
+     * expiry. Releasing is idempotent, so instances sweeping the same orders
+     * only cost a no-op UPDATE.
+     */
+    @Scheduled(fixedDelayString = "${inventory.reservation.sweep-interval-ms:60000}",
+            initialDelayString = "${inventory.reservation.sweep-interval-ms:60000}")
+    public void sweepOverdueReservations() {
+        List<Long> overdue = stockJdbcRepository.findOverdueOrders(reservationProperties.getSweepGraceMs(), SWEEP_LIMIT);
+        if (overdue.isEmpty()) {
+            return;
+        }
+        log.warn("Sweep found {} orders with overdue reservations, expiring them", overdue.size());
+        long now = System.currentTimeMillis();
+        overdue.forEach(orderId -> reservationExpiryTracker.track(orderId, now));
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.reservation.tick-ms:1000}")
+    public void expireReservations() {
+        // The same order may have been tracked twice (live and by the recovery scan)
+        Set<Long> due = new LinkedHashSet<>();
+        reservationExpiryTracker.pollExpired(due::add);
+        if (due.isEmpty()) {
+            return;
+        }
+
+        List<Long> orderIds = new ArrayList<>(due);
+        int batchSize = reservationProperties.getExpiryBatchSize();
+        for (int from = 0; from < orderIds.size(); from += batchSize) {
+            List<Long> batch = orderIds.subList(from, Math.min(from + batchSize, orderIds.size()));
+            try {
+                int expired = inventoryService.expireReservations(batch);
+                if (expired > 0) {
+                    log.info("Released stock of {} expired orders", expired);
+                }
+            } catch (Exception e) {
+                log.error("Failed to expire reservations of {} orders, retrying later: {}", batch.size(), e.getMessage());
+                long retryAt = System.currentTimeMillis() + RETRY_DELAY_MS;
+                batch.forEach(orderId -> reservationExpiryTracker.track(orderId, retryAt));
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.pizzaflow.inventory.scheduler;
+
+import com.pizzaflow.inventory.repository.ShardedStockRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Keeps sharded inventory items healthy: moves stock from full shards to
+ * drained ones so single-shard reservations keep succeeding, and copies the
+ * shard totals back into inventory_item for readers.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ShardRebalanceJob {
+
+    private final ShardedStockRepository shardedStockRepository;
+
+    @Scheduled(fixedDelayString = "${inventory.shards.rebalance-interval-ms:5000}")
+    public void rebalanceShards() {
+        for (Long itemId : shardedStockRepository.findShardedItemIds()) {
+            try {
+                if (shardedStockRepository.rebalance(itemId)) {
+                    log.info("Rebalanced stock shards of inventory item {}", itemId);
+                }
+                shardedStockRepository.syncAggregate(itemId);
+            } catch (Exception e) {
+                log.warn("Failed to rebalance stock shards of inventory item {}: {}", itemId, e.getMessage());
+            }
+        }
+    }
+}
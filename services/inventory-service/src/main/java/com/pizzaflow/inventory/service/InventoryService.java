@@ -2,32 +2,71 @@ package com.pizzaflow.inventory.service;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pizzaflow.inventory.availability.AvailabilitySnapshot;
+import com.pizzaflow.inventory.bom.RecipeBook;
+import com.pizzaflow.inventory.config.OutboxProperties;
+import com.pizzaflow.inventory.config.ReservationProperties;
+import com.pizzaflow.inventory.dedupe.ProcessedEventStore;
 import com.pizzaflow.inventory.domain.*;
+import com.pizzaflow.inventory.dto.AvailabilityResponse;
 import com.pizzaflow.inventory.dto.CreateInventoryItemRequest;
 import com.pizzaflow.inventory.dto.InventoryItemResponse;
-import com.pizzaflow.inventory.exception.InsufficientStockException;
+import com.pizzaflow.inventory.exception.ConflictException;
 import com.pizzaflow.inventory.exception.ResourceNotFoundException;
+import com.pizzaflow.inventory.expiry.ReservationExpiryTracker;
+import com.pizzaflow.inventory.ledger.StockLedger;
 import com.pizzaflow.inventory.repository.InventoryItemRepository;
 import com.pizzaflow.inventory.repository.OutboxEventRepository;
+import com.pizzaflow.inventory.repository.ShardedStockRepository;
+import com.pizzaflow.inventory.repository.StockJdbcRepository;
+import com.pizzaflow.inventory.repository.StockLedgerRepository;
 import com.pizzaflow.inventory.repository.StockReservationRepository;
+import com.pizzaflow.inventory.scheduler.OutboxMetrics;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class InventoryService {
 
+    private static final String ORDER_CREATED_TOPIC = "order.created";
+    private static final String PAYMENT_COMPLETED_TOPIC = "payment.completed";
+    private static final String PAYMENT_FAILED_TOPIC = "payment.failed";
+
     private final InventoryItemRepository inventoryItemRepository;
     private final StockReservationRepository stockReservationRepository;
+    private final StockJdbcRepository stockJdbcRepository;
+    private final StockLedgerRepository stockLedgerRepository;
+    private final ShardedStockRepository shardedStockRepository;
+    private final ObjectProvider<StockLedger> stockLedger;
+    private final ReservationExpiryTracker reservationExpiryTracker;
+    private final AvailabilitySnapshot availabilitySnapshot;
+    private final RecipeBook recipeBook;
+    private final ProcessedEventStore processedEventStore;
+    private final OutboxMetrics outboxMetrics;
     private final OutboxEventRepository outboxEventRepository;
     private final ObjectMapper objectMapper;
+    private final JdbcTemplate jdbcTemplate;
+    private final OutboxProperties outboxProperties;
+    private final ReservationProperties reservationProperties;
 
     @Transactional
     public InventoryItemResponse createInventoryItem(CreateInventoryItemRequest request) {
@@ -42,6 +81,10 @@ public class InventoryService {
         InventoryItem savedItem = inventoryItemRepository.save(item);
         log.info("Created inventory item: {}", savedItem.getProductId());
 
+        stockLedger.ifAvailable(ledger -> ledger.register(
+                savedItem.getId(), savedItem.getProductId(), savedItem.getAvailableQuantity()));
+        availabilitySnapshot.addAfterCommit(savedItem);
+
         return mapToResponse(savedItem);
     }
 
@@ -56,101 +99,359 @@ public class InventoryService {
         return mapToResponse(item);
     }
 
+    /**
+     * Availability of all products from the in-memory snapshot.
+     */
+    public AvailabilityResponse getAvailability() {
+        return availabilitySnapshot.full();
+    }
+
+    /**
+     * Products whose availability changed after the given snapshot version.
+     *
+     * @return the changes, the full snapshot if the version is no longer
+     * known, or null if nothing changed
+     */
+    public AvailabilityResponse getAvailabilityChanges(String sinceVersion) {
+        return availabilitySnapshot.changesSince(sinceVersion);
+    }
+
+    /**
+     * Reserve stock for all products of an order, all or nothing.
+     * The ordered products are first expanded into the stock items they
+     * consume through the {@link RecipeBook}; a product without a recipe is
+     * its own stock item. Each stock item is reserved with a guarded UPDATE that only matches while
+     * enough stock is available, so concurrent orders for the same product
+     * never hit an optimistic lock conflict and nothing has to be retried.
+     * Rows are locked in productId order to keep multi-product orders from
+     * deadlocking each other. If any product falls short, the products already
+     * reserved in this call are handed back and INVENTORY_UNAVAILABLE is
+     * published instead; the transaction still commits so the event is kept.
+     * With the in-memory {@link StockLedger} enabled the availability check is
+     * answered from memory and inventory_item is updated write-behind.
+     *
+     * Redeliveries are filtered through the {@link ProcessedEventStore}. An
+     * order whose payment.completed was handled before its order.created gets
+     * reservations that never expire; one whose payment.failed was handled
+     * first is not reserved at all.
+     *
+     * @param orderId The ID of the order to reserve stock for
+     * @param productQuantities productId -> requested quantity
+     * @return true if the whole order was reserved, the order was already
+     * processed or its payment already failed
+     */
     @Transactional
-    public void reserveStockForOrder(Long orderId, Map<String, Integer> productQuantities) {
+    public boolean reserveStockForOrder(Long orderId, Map<String, Integer> productQuantities) {
         log.info("Attempting to reserve stock for order: {}", orderId);
 
-        // Check if stock is already reserved
-        List<StockReservation> existingReservations = stockReservationRepository.findByOrderId(orderId);
-        if (!existingReservations.isEmpty()) {
-            log.warn("Stock already reserved for order: {}", orderId);
-            return;
+        if (!processedEventStore.claim(ORDER_CREATED_TOPIC, orderId.toString())) {
+            log.warn("Order {} was already processed", orderId);
+            return true;
         }
+        return reserveClaimedOrder(orderId, productQuantities);
+    }
 
-        try {
-            // Reserve stock for each product
-            for (Map.Entry<String, Integer> entry : productQuantities.entrySet()) {
-                String productId = entry.getKey();
-                Integer quantity = entry.getValue();
-
-                InventoryItem item = inventoryItemRepository.findByProductId(productId)
-                        .orElseThrow(() -> new ResourceNotFoundException("Product not found: " + productId));
-
-                // Check availability and reserve
-                if (!item.canReserve(quantity)) {
-                    throw new InsufficientStockException(
-                            "Insufficient stock for product: " + productId +
-                                    ". Available: " + item.getAvailableQuantity() +
-                                    ", Requested: " + quantity);
-                }
+    private boolean reserveClaimedOrder(Long orderId, Map<String, Integer> productQuantities) {
+        stockJdbcRepository.lockOrders(List.of(orderId));
+        if (!processedOrders(PAYMENT_FAILED_TOPIC, List.of(orderId)).isEmpty()) {
+            log.warn("Payment of order {} already failed, not reserving its stock", orderId);
+            return true;
+        }
+        boolean paid = !processedOrders(PAYMENT_COMPLETED_TOPIC, List.of(orderId)).isEmpty();
+
+        List<Map.Entry<String, Integer>> lines = expandOrReject(orderId, productQuantities);
+        if (lines == null) {
+            return false;
+        }
+        StockLedger ledger = stockLedger.getIfAvailable();
+        LineAllocation allocation = ledger != null
+                ? new LineAllocation(ledger.reserve(lines), Map.of())
+                : reserveInDatabase(lines);
+
+        if (!allocation.shortLines().isEmpty()) {
+            String reason = describeShortfall(allocation.shortLines());
+            log.error("Failed to reserve stock for order {}: {}", orderId, reason);
+
+            // Publish failure event via Outbox
+            publishInventoryEvent(orderId.toString(), "INVENTORY_UNAVAILABLE", Map.of(
+                    "orderId", orderId,
+                    "status", "UNAVAILABLE",
+                    "reason", reason));
+            return false;
+        }
+
+        stockJdbcRepository.insertReservations(orderId, lines, allocation.shardNos(),
+                paid ? null : reservationTtlMs());
+        if (!paid) {
+            reservationExpiryTracker.trackAfterCommit(List.of(orderId));
+        }
+        availabilitySnapshot.adjustProductsAfterCommit(negate(lines));
+        log.info("Reserved {} stock items for order {}", lines.size(), orderId);
+
+        // Publish success event via Outbox
+        publishInventoryEvent(orderId.toString(), "INVENTORY_RESERVED", Map.of(
+                "orderId", orderId,
+                "status", "RESERVED",
+                "products", productQuantities));
+        return true;
+    }
+
+    /**
+     * Reserves stock for many orders in one transaction, each order still all
+     * or nothing. The rows of every product in the batch are locked once, in
+     * productId order; orders are then allocated against those amounts in
+     * arrival order, and the accepted demand is written with one UPDATE per
+     * product. An order that falls short only gets its INVENTORY_UNAVAILABLE
+     * event and does not affect the others.
+     * Orders touching sharded or unknown products, and every order while the
+     * {@link StockLedger} is enabled, go through the single-order path inside
+     * the same transaction.
+     *
+     * @param orders orderId -> (productId -> requested quantity), in arrival order
+     * @return the IDs of the orders that were reserved, including ones processed earlier
+     */
+    @Transactional
+    public Set<Long> reserveStockForOrders(Map<Long, Map<String, Integer>> orders) {
+        Set<String> claimed = processedEventStore.claimAll(ORDER_CREATED_TOPIC,
+                orders.keySet().stream().map(String::valueOf).toList());
+        Set<Long> reserved = new HashSet<>();
+        Map<Long, Map<String, Integer>> pending = new LinkedHashMap<>();
+        orders.forEach((orderId, productQuantities) -> {
+            if (claimed.contains(orderId.toString())) {
+                pending.put(orderId, productQuantities);
+            } else {
+                reserved.add(orderId);
+            }
+        });
+        if (!reserved.isEmpty()) {
+            log.warn("Orders already processed: {}", reserved);
+        }
 
-                item.reserve(quantity);
-                inventoryItemRepository.save(item);
+        stockJdbcRepository.lockOrders(pending.keySet());
+        Set<Long> declined = processedOrders(PAYMENT_FAILED_TOPIC, pending.keySet());
+        if (!declined.isEmpty()) {
+            log.warn("Payment of orders {} already failed, not reserving their stock", declined);
+            pending.keySet().removeAll(declined);
+            reserved.addAll(declined);
+        }
+        Set<Long> paid = processedOrders(PAYMENT_COMPLETED_TOPIC, pending.keySet());
 
-                // Create reservation record
-                StockReservation reservation = StockReservation.builder()
-                        .orderId(orderId)
-                        .inventoryItem(item)
-                        .quantity(quantity)
-                        .status(ReservationStatus.RESERVED)
-                        .build();
-                stockReservationRepository.save(reservation);
+        Map<Long, List<Map.Entry<String, Integer>>> pendingLines = new LinkedHashMap<>();
+        pending.entrySet().removeIf(order -> {
+            List<Map.Entry<String, Integer>> lines = expandOrReject(order.getKey(), order.getValue());
+            if (lines == null) {
+                return true;
+            }
+            pendingLines.put(order.getKey(), lines);
+            return false;
+        });
+
+        Map<String, Integer> available = stockLedger.getIfAvailable() != null
+                ? Map.of()
+                : stockJdbcRepository.lockAvailable(pendingLines.values().stream()
+                        .flatMap(lines -> lines.stream().map(Map.Entry::getKey))
+                        .collect(Collectors.toCollection(TreeSet::new)));
+
+        Map<String, Integer> totals = new TreeMap<>();
+        List<StockJdbcRepository.ReservationLine> reservationLines = new ArrayList<>();
+        Map<Long, Map<String, Integer>> fallback = new LinkedHashMap<>();
+
+        pending.forEach((orderId, productQuantities) -> {
+            List<Map.Entry<String, Integer>> lines = pendingLines.get(orderId);
+            if (!lines.stream().allMatch(line -> available.containsKey(line.getKey()))) {
+                fallback.put(orderId, productQuantities);
+                return;
+            }
 
-                log.info("Reserved {} units of {} for order {}", quantity, productId, orderId);
+            List<Map.Entry<String, Integer>> shortLines = lines.stream()
+                    .filter(line -> available.get(line.getKey()) < line.getValue())
+                    .toList();
+            if (!shortLines.isEmpty()) {
+                String reason = shortLines.stream()
+                        .map(line -> "Insufficient stock for product: " + line.getKey() +
+                                ". Available: " + available.get(line.getKey()) +
+                                ", Requested: " + line.getValue())
+                        .collect(Collectors.joining("; "));
+                log.error("Failed to reserve stock for order {}: {}", orderId, reason);
+                publishInventoryEvent(orderId.toString(), "INVENTORY_UNAVAILABLE", Map.of(
+                        "orderId", orderId,
+                        "status", "UNAVAILABLE",
+                        "reason", reason));
+                return;
             }
 
-            // Publish success event via Outbox
+            lines.forEach(line -> {
+                available.merge(line.getKey(), -line.getValue(), Integer::sum);
+                totals.merge(line.getKey(), line.getValue(), Integer::sum);
+                reservationLines.add(new StockJdbcRepository.ReservationLine(
+                        orderId, line.getKey(), line.getValue(), null));
+            });
+            reserved.add(orderId);
             publishInventoryEvent(orderId.toString(), "INVENTORY_RESERVED", Map.of(
                     "orderId", orderId,
                     "status", "RESERVED",
                     "products", productQuantities));
+        });
+
+        if (!totals.isEmpty()) {
+            stockJdbcRepository.reserveLocked(new ArrayList<>(totals.entrySet()));
+            Map<Boolean, List<StockJdbcRepository.ReservationLine>> byPaid = reservationLines.stream()
+                    .collect(Collectors.partitioningBy(line -> paid.contains(line.orderId())));
+            stockJdbcRepository.insertReservations(byPaid.get(false), reservationTtlMs());
+            stockJdbcRepository.insertReservations(byPaid.get(true), null);
+            availabilitySnapshot.adjustProductsAfterCommit(negate(totals.entrySet()));
+        }
 
-        } catch (InsufficientStockException | ResourceNotFoundException e) {
-            log.error("Failed to reserve stock for order {}: {}", orderId, e.getMessage());
+        reservationExpiryTracker.trackAfterCommit(reservationLines.stream()
+                .map(StockJdbcRepository.ReservationLine::orderId)
+                .filter(orderId -> !paid.contains(orderId))
+                .distinct()
+                .toList());
 
-            // Publish failure event via Outbox
-            publishInventoryEvent(orderId.toString(), "INVENTORY_UNAVAILABLE", Map.of(
-                    "orderId", orderId,
-                    "status", "UNAVAILABLE",
-                    "reason", e.getMessage()));
+        fallback.forEach((orderId, productQuantities) -> {
+            if (reserveClaimedOrder(orderId, productQuantities)) {
+                reserved.add(orderId);
+            }
+        });
 
-            throw e;
+        log.info("Reserved stock for {} of {} orders in batch", reserved.size(), orders.size());
+        return reserved;
+    }
+
+    /**
+     * Runs the guarded reservation UPDATEs and hands back what was taken if any
+     * line falls short. Lines the single-row UPDATE did not match are retried
+     * on the shards, which only succeeds for sharded items.
+     */
+    private LineAllocation reserveInDatabase(List<Map.Entry<String, Integer>> lines) {
+        int[] updated = stockJdbcRepository.reserve(lines);
+
+        List<Map.Entry<String, Integer>> reserved = new ArrayList<>(lines.size());
+        List<Map.Entry<String, Integer>> shortLines = new ArrayList<>();
+        Map<String, Integer> shardNos = new HashMap<>();
+        for (int i = 0; i < lines.size(); i++) {
+            Map.Entry<String, Integer> line = lines.get(i);
+            if (updated[i] > 0) {
+                reserved.add(line);
+                continue;
+            }
+            Integer shardNo = shardedStockRepository.reserve(line.getKey(), line.getValue());
+            if (shardNo != null) {
+                shardNos.put(line.getKey(), shardNo);
+            } else {
+                shortLines.add(line);
+            }
+        }
+
+        if (!shortLines.isEmpty()) {
+            stockJdbcRepository.release(reserved);
+            shardNos.forEach((productId, shardNo) ->
+                    shardedStockRepository.release(productId, shardNo, productQuantity(lines, productId)));
         }
+        return new LineAllocation(shortLines, shardNos);
+    }
+
+    private static int productQuantity(List<Map.Entry<String, Integer>> lines, String productId) {
+        return lines.stream()
+                .filter(line -> line.getKey().equals(productId))
+                .mapToInt(Map.Entry::getValue)
+                .findFirst()
+                .orElse(0);
     }
 
     /**
      * Release reserved stock for a cancelled or failed order.
      * This method is called when an order is cancelled before fulfillment,
-     * returning the reserved quantity back to available stock.
+     * returning the reserved quantity back to available stock. Runs the same
+     * set-based statements as {@link #releaseStockForOrders}.
      *
      * FUTURE INTEGRATION POINTS:
      * - Kafka Consumer listening to 'order.cancelled' events
      * - Payment failure compensation in the Saga pattern
-     * - Order timeout scheduler (e.g., unpaid orders after 15 minutes)
+     * Unpaid orders are released by {@link #expireReservations} instead.
      *
      * @param orderId The ID of the order to release stock for
      */
     @Transactional
     public void releaseStockForOrder(Long orderId) {
         log.info("Releasing stock for order: {}", orderId);
+        releaseStockForOrders(List.of(orderId));
+    }
 
-        List<StockReservation> reservations = stockReservationRepository.findByOrderId(orderId);
-
-        for (StockReservation reservation : reservations) {
-            if (reservation.getStatus() == ReservationStatus.RESERVED) {
-                InventoryItem item = reservation.getInventoryItem();
-                item.release(reservation.getQuantity());
-                inventoryItemRepository.save(item);
-
-                reservation.setStatus(ReservationStatus.RELEASED);
-                stockReservationRepository.save(reservation);
+    /**
+     * Releases the reserved stock of many orders at once, e.g. for a poll of
+     * payment.failed events. The reservations are ended with one statement and
+     * the stock is returned with one UPDATE per inventory item.
+     * The failures are recorded in processed_event first: an order whose
+     * order.created has not been handled yet has nothing to release, and its
+     * stock is then never reserved instead of being held until it expires.
+     *
+     * @param orderIds orders whose reservations should be released
+     * @return the number of orders that still had reserved stock
+     */
+    @Transactional
+    public int releaseStockForOrders(Collection<Long> orderIds) {
+        stockJdbcRepository.lockOrders(orderIds);
+        processedEventStore.claimAll(PAYMENT_FAILED_TOPIC, orderIds.stream().map(String::valueOf).toList());
+        List<StockJdbcRepository.EndedReservation> released =
+                stockJdbcRepository.endReservations(orderIds, ReservationStatus.RELEASED, false);
+        returnStock(released);
+        reservationExpiryTracker.cancelAfterCommit(orderIds);
+
+        long orders = released.stream().map(StockJdbcRepository.EndedReservation::orderId).distinct().count();
+        log.info("Released {} reservations of {} orders", released.size(), orders);
+        if (orders < orderIds.size()) {
+            log.warn("{} of {} declined orders had no reserved stock; they will not be reserved later",
+                    orderIds.size() - orders, orderIds.size());
+        }
+        return (int) orders;
+    }
 
-                log.info("Released {} units of {} for order {}",
-                        reservation.getQuantity(),
-                        item.getProductId(),
-                        orderId);
-            }
+    /**
+     * Releases the stock of orders whose reservations outlived their TTL and
+     * publishes INVENTORY_EXPIRED for each. Only reservations that are still
+     * RESERVED and due are touched, so orders that were paid, committed or
+     * released since they were scheduled are skipped.
+     *
+     * @param orderIds orders whose expiry deadline has passed
+     * @return the number of orders whose stock was released
+     */
+    @Transactional
+    public int expireReservations(Collection<Long> orderIds) {
+        List<StockJdbcRepository.EndedReservation> expired =
+                stockJdbcRepository.endReservations(orderIds, ReservationStatus.EXPIRED, true);
+        if (expired.isEmpty()) {
+            return 0;
         }
+        returnStock(expired);
+
+        Set<Long> expiredOrders = expired.stream()
+                .map(StockJdbcRepository.EndedReservation::orderId)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        expiredOrders.forEach(orderId -> publishInventoryEvent(orderId.toString(), "INVENTORY_EXPIRED", Map.of(
+                "orderId", orderId,
+                "status", "EXPIRED",
+                "reason", "Reservation not paid within " + reservationProperties.getTtl())));
+
+        log.info("Expired {} reservations of {} orders", expired.size(), expiredOrders.size());
+        return expiredOrders.size();
+    }
+
+    /**
+     * Keeps the stock of a paid order reserved until it is committed or
+     * released, by taking its reservations off the expiry schedule. The
+     * payment is recorded as processed, so reservations of an order whose
+     * order.created has not been handled yet are inserted without expiry.
+     *
+     * @param orderId The ID of the paid order
+     */
+    @Transactional
+    public void holdReservationsForPaidOrder(Long orderId) {
+        stockJdbcRepository.lockOrders(List.of(orderId));
+        processedEventStore.claim(PAYMENT_COMPLETED_TOPIC, orderId.toString());
+        int held = stockJdbcRepository.clearExpiry(orderId);
+        reservationExpiryTracker.cancelAfterCommit(List.of(orderId));
+        log.info("Order {} paid, {} reservations no longer expire", orderId, held);
     }
 
     /**
@@ -171,23 +472,116 @@ public class InventoryService {
     public void commitStockForOrder(Long orderId) {
         log.info("Committing stock for order: {}", orderId);
 
-        List<StockReservation> reservations = stockReservationRepository.findByOrderId(orderId);
+        StockLedger ledger = stockLedger.getIfAvailable();
+        if (ledger != null) {
+            for (StockReservation reservation : stockReservationRepository.findByOrderId(orderId)) {
+                // quantity is decremented by the ledger's write-behind flush
+                if (reservation.getStatus() == ReservationStatus.RESERVED
+                        && stockLedgerRepository.markCommitted(reservation.getId())) {
+                    ledger.commit(reservation.getId(), reservation.getInventoryItem().getId(),
+                            reservation.getQuantity());
+                }
+            }
+        } else {
+            List<StockJdbcRepository.EndedReservation> committed =
+                    stockJdbcRepository.endReservations(List.of(orderId), ReservationStatus.CONFIRMED, false);
+            Map<Long, Integer> unsharded = new TreeMap<>();
+            for (StockJdbcRepository.EndedReservation reservation : committed) {
+                if (reservation.sharded()) {
+                    shardedStockRepository.commit(reservation.inventoryItemId(), shardOf(reservation),
+                            reservation.quantity());
+                } else {
+                    unsharded.merge(reservation.inventoryItemId(), reservation.quantity(), Integer::sum);
+                }
+            }
+            stockJdbcRepository.commitItems(unsharded);
+            log.info("Committed {} reservations for order {}", committed.size(), orderId);
+        }
+        reservationExpiryTracker.cancelAfterCommit(List.of(orderId));
+    }
 
-        for (StockReservation reservation : reservations) {
-            if (reservation.getStatus() == ReservationStatus.RESERVED) {
-                InventoryItem item = reservation.getInventoryItem();
-                item.commit(reservation.getQuantity());
-                inventoryItemRepository.save(item);
+    /**
+     * Splits an inventory item into stock shards so concurrent reservations of
+     * a hot product stop queueing on one row.
+     *
+     * @param id         The inventory item to shard
+     * @param shardCount Number of shard rows to spread the available stock over
+     */
+    @Transactional
+    public InventoryItemResponse shardItem(Long id, int shardCount) {
+        if (stockLedger.getIfAvailable() != null) {
+            throw new ConflictException("Stock shards cannot be used together with the in-memory stock ledger");
+        }
+        if (shardCount < 2) {
+            throw new IllegalArgumentException("Shard count must be at least 2");
+        }
+        // Checked without loading the entity so the re-read below sees the new shard_count
+        if (!inventoryItemRepository.existsById(id)) {
+            throw new ResourceNotFoundException("Inventory item not found with id: " + id);
+        }
+        if (!shardedStockRepository.createShards(id, shardCount)) {
+            throw new ConflictException("Inventory item is already sharded: " + id);
+        }
+        log.info("Split inventory item {} into {} stock shards", id, shardCount);
+        return mapToResponse(findItemById(id));
+    }
 
-                reservation.setStatus(ReservationStatus.CONFIRMED);
-                stockReservationRepository.save(reservation);
+    /**
+     * Gives the stock of ended reservations back. Quantities are summed per
+     * inventory item first, so many orders for the same product cost a single
+     * row update.
+     */
+    private void returnStock(List<StockJdbcRepository.EndedReservation> reservations) {
+        if (reservations.isEmpty()) {
+            return;
+        }
+        Map<Long, Integer> releasedByItem = new HashMap<>();
+        reservations.forEach(reservation ->
+                releasedByItem.merge(reservation.inventoryItemId(), reservation.quantity(), Integer::sum));
+        availabilitySnapshot.adjustItemsAfterCommit(releasedByItem);
+
+        StockLedger ledger = stockLedger.getIfAvailable();
+        if (ledger != null) {
+            reservations.forEach(reservation -> ledger.release(reservation.inventoryItemId(), reservation.quantity()));
+            return;
+        }
 
-                log.info("Committed {} units of {} for order {}",
-                        reservation.getQuantity(),
-                        item.getProductId(),
-                        orderId);
+        Map<Long, Integer> unsharded = new TreeMap<>();
+        for (StockJdbcRepository.EndedReservation reservation : reservations) {
+            if (reservation.sharded()) {
+                shardedStockRepository.release(reservation.inventoryItemId(), shardOf(reservation),
+                        reservation.quantity());
+            } else {
+                unsharded.merge(reservation.inventoryItemId(), reservation.quantity(), Integer::sum);
             }
         }
+        stockJdbcRepository.releaseItems(unsharded);
+    }
+
+    private static Map<String, Integer> negate(Collection<Map.Entry<String, Integer>> lines) {
+        Map<String, Integer> negated = new HashMap<>();
+        lines.forEach(line -> negated.merge(line.getKey(), -line.getValue(), Integer::sum));
+        return negated;
+    }
+
+    /**
+     * Orders whose payment event of the topic was already handled. Must be
+     * called with the orders locked through {@link StockJdbcRepository#lockOrders}.
+     */
+    private Set<Long> processedOrders(String topic, Collection<Long> orderIds) {
+        return processedEventStore.findProcessed(topic,
+                        orderIds.stream().map(String::valueOf).toList()).stream()
+                .map(Long::valueOf)
+                .collect(Collectors.toSet());
+    }
+
+    private Long reservationTtlMs() {
+        return reservationProperties.isExpiryEnabled() ? reservationProperties.getTtl().toMillis() : null;
+    }
+
+    // Reservations made before the item was sharded live on shard 0
+    private static int shardOf(StockJdbcRepository.EndedReservation reservation) {
+        return reservation.shardNo() != null ? reservation.shardNo() : 0;
     }
 
     private void publishInventoryEvent(String aggregateId, String eventType, Map<String, Object> payload) {
@@ -204,18 +598,62 @@ public class InventoryService {
                     .build();
 
             outboxEventRepository.save(event);
+            outboxMetrics.eventCreated(eventType);
             log.info("Created outbox event: {} for aggregate: {}", eventType, aggregateId);
 
+            // Postgres delivers the notification only once this transaction commits
+            if (outboxProperties.isNotifyEnabled()) {
+                jdbcTemplate.execute("NOTIFY " + outboxProperties.getNotifyChannel());
+            }
+
         } catch (JsonProcessingException e) {
             log.error("Failed to serialize event payload", e);
         }
     }
 
+    /**
+     * Builds the failure reason for products the guarded UPDATE did not match.
+     * Only runs on the failure path, so the extra lookups cost nothing for
+     * successful reservations.
+     */
+    /**
+     * Expands an order into stock lines. An order whose quantities overflow
+     * can never be served, so it is rejected with INVENTORY_UNAVAILABLE
+     * instead of failing the transaction and being redelivered.
+     *
+     * @return the stock lines, or null if the order was rejected
+     */
+    private List<Map.Entry<String, Integer>> expandOrReject(Long orderId, Map<String, Integer> productQuantities) {
+        try {
+            return recipeBook.expand(productQuantities);
+        } catch (IllegalArgumentException e) {
+            log.error("Failed to reserve stock for order {}: {}", orderId, e.getMessage());
+            publishInventoryEvent(orderId.toString(), "INVENTORY_UNAVAILABLE", Map.of(
+                    "orderId", orderId,
+                    "status", "UNAVAILABLE",
+                    "reason", e.getMessage()));
+            return null;
+        }
+    }
+
+    private String describeShortfall(List<Map.Entry<String, Integer>> shortLines) {
+        return shortLines.stream()
+                .map(line -> inventoryItemRepository.findByProductId(line.getKey())
+                        .map(item -> "Insufficient stock for product: " + line.getKey() +
+                                ". Available: " + item.getAvailableQuantity() +
+                                ", Requested: " + line.getValue())
+                        .orElse("Product not found: " + line.getKey()))
+                .collect(Collectors.joining("; "));
+    }
+
     private InventoryItem findItemById(Long id) {
         return inventoryItemRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Inventory item not found with id: " + id));
     }
 
+    private record LineAllocation(List<Map.Entry<String, Integer>> shortLines, Map<String, Integer> shardNos) {
+    }
+
     private InventoryItemResponse mapToResponse(InventoryItem item) {
         return InventoryItemResponse.builder()
                 .id(item.getId())
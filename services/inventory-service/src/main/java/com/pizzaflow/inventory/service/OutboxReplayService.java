@@ -0,0 +1,136 @@
+package com.pizzaflow.inventory.service;
+
+import com.pizzaflow.inventory.config.OutboxProperties;
+import com.pizzaflow.inventory.dto.OutboxReplayStatus;
+import com.pizzaflow.inventory.exception.ConflictException;
+import com.pizzaflow.inventory.repository.OutboxEventRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Replays parked DEAD outbox events. Events are moved back to PENDING in
+ * small batches with a pause in between, so a large replay reaches the relay
+ * and the broker as a steady trickle instead of one burst. A replay runs on
+ * a background thread, one at a time per instance; callers poll its status.
+ */
+@Service
+@Slf4j
+public class OutboxReplayService {
+
+    public static final int MAX_LIMIT = 100_000;
+    public static final int MAX_BATCH_SIZE = 1_000;
+    public static final long MAX_PAUSE_MS = 60_000;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxProperties outboxProperties;
+    private final JdbcTemplate jdbcTemplate;
+    private final ExecutorService replayer = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("outbox-replay").daemon().factory());
+
+    private OutboxReplayStatus status = OutboxReplayStatus.builder().build();
+
+    public OutboxReplayService(OutboxEventRepository outboxEventRepository, OutboxProperties outboxProperties,
+                               JdbcTemplate jdbcTemplate) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.outboxProperties = outboxProperties;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Starts a replay in the background.
+     *
+     * @param eventType only replay events of this type, or all if null
+     * @param limit     maximum number of events to replay, at most {@link #MAX_LIMIT}
+     * @param batchSize events revived per batch, at most {@link #MAX_BATCH_SIZE}
+     * @param pauseMs   pause between two batches, at most {@link #MAX_PAUSE_MS}
+     * @return the status of the replay just started
+     * @throws IllegalArgumentException if an argument is out of range
+     * @throws ConflictException        if a replay is already running
+     */
+    public synchronized OutboxReplayStatus startReplay(String eventType, int limit, int batchSize, long pauseMs) {
+        if (limit <= 0 || limit > MAX_LIMIT || batchSize <= 0 || batchSize > MAX_BATCH_SIZE
+                || pauseMs < 0 || pauseMs > MAX_PAUSE_MS) {
+            throw new IllegalArgumentException("limit must be 1.." + MAX_LIMIT + ", batchSize 1.." + MAX_BATCH_SIZE
+                    + " and pauseMs 0.." + MAX_PAUSE_MS);
+        }
+        if (status.isRunning()) {
+            throw new ConflictException("A dead event replay is already running");
+        }
+
+        status = OutboxReplayStatus.builder()
+                .running(true)
+                .eventType(eventType)
+                .limit(limit)
+                .startedAt(Instant.now())
+                .build();
+        OutboxReplayStatus started = status();
+        replayer.execute(() -> runReplay(eventType, limit, batchSize, pauseMs));
+        return started;
+    }
+
+    /**
+     * Status of the running or last finished replay.
+     */
+    public synchronized OutboxReplayStatus status() {
+        return status.toBuilder().build();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        replayer.shutdownNow();
+    }
+
+    private void runReplay(String eventType, int limit, int batchSize, long pauseMs) {
+        String error = null;
+        try {
+            int replayed = replayDeadEvents(eventType, limit, batchSize, pauseMs);
+            log.info("Dead event replay finished, {} events moved back to PENDING", replayed);
+        } catch (Exception e) {
+            error = e.getMessage();
+            log.error("Dead event replay failed", e);
+        }
+        synchronized (this) {
+            status.setRunning(false);
+            status.setFinishedAt(Instant.now());
+            status.setError(error);
+        }
+    }
+
+    /**
+     * @return number of events moved back to PENDING
+     */
+    private int replayDeadEvents(String eventType, int limit, int batchSize, long pauseMs) {
+        int replayed = 0;
+        while (replayed < limit) {
+            int revived = outboxEventRepository.reviveDead(eventType, Math.min(batchSize, limit - replayed));
+            if (revived == 0) {
+                break;
+            }
+            replayed += revived;
+            synchronized (this) {
+                status.setReplayed(replayed);
+            }
+            if (outboxProperties.isNotifyEnabled()) {
+                jdbcTemplate.execute("NOTIFY " + outboxProperties.getNotifyChannel());
+            }
+            log.info("Replayed {} dead outbox events ({} so far)", revived, replayed);
+
+            if (revived < batchSize || replayed >= limit) {
+                break;
+            }
+            try {
+                Thread.sleep(pauseMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return replayed;
+    }
+}
@@ -0,0 +1,74 @@
+package com.pizzaflow.inventory.service;
+
+import com.pizzaflow.inventory.bom.RecipeBook;
+import com.pizzaflow.inventory.exception.ResourceNotFoundException;
+import com.pizzaflow.inventory.repository.InventoryItemRepository;
+import com.pizzaflow.inventory.repository.RecipeRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+
+/**
+ * Maintains the bill of materials of catalog products. The recipe table
+ * used for reservations is recompiled as soon as a change commits.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RecipeService {
+
+    private final RecipeRepository recipeRepository;
+    private final InventoryItemRepository inventoryItemRepository;
+    private final RecipeBook recipeBook;
+
+    public Map<String, Integer> getRecipe(String productId) {
+        Map<String, Integer> ingredients = recipeRepository.findByProductId(productId);
+        if (ingredients.isEmpty()) {
+            throw new ResourceNotFoundException("Recipe not found for product: " + productId);
+        }
+        return ingredients;
+    }
+
+    /**
+     * Creates or replaces the recipe of a catalog product. An ingredient may
+     * itself have a recipe; it is then expanded further when reserving.
+     *
+     * @param ingredients stock item productId -> quantity used by one unit of the product
+     * @throws IllegalArgumentException if the change would make recipes form a cycle
+     */
+    @Transactional
+    public Map<String, Integer> saveRecipe(String productId, Map<String, Integer> ingredients) {
+        for (String ingredientId : ingredients.keySet()) {
+            if (inventoryItemRepository.findByProductId(ingredientId).isEmpty()) {
+                throw new ResourceNotFoundException("Inventory item not found for ingredient: " + ingredientId);
+            }
+        }
+        recipeRepository.replace(productId, ingredients);
+        // Rolls the change back if it cannot be compiled
+        recipeBook.verify(recipeRepository.findAll());
+        refreshAfterCommit();
+        log.info("Saved recipe of product {} with {} ingredients", productId, ingredients.size());
+        return ingredients;
+    }
+
+    @Transactional
+    public void deleteRecipe(String productId) {
+        recipeRepository.replace(productId, Map.of());
+        refreshAfterCommit();
+        log.info("Deleted recipe of product {}", productId);
+    }
+
+    private void refreshAfterCommit() {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recipeBook.refresh();
+            }
+        });
+    }
+}
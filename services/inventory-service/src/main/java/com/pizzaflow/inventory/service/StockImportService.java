@@ -0,0 +1,122 @@
+package com.pizzaflow.inventory.service;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pizzaflow.inventory.availability.AvailabilitySnapshot;
+import com.pizzaflow.inventory.dto.CreateInventoryItemRequest;
+import com.pizzaflow.inventory.dto.StockImportResponse;
+import com.pizzaflow.inventory.exception.ConflictException;
+import com.pizzaflow.inventory.ledger.StockLedger;
+import com.pizzaflow.inventory.repository.StockImportRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk stock import for onboarding a location. The request body is streamed
+ * into PostgreSQL COPY as it arrives, so the file size is bounded by the
+ * database rather than by the heap, and the whole file becomes one upsert in
+ * one transaction.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StockImportService {
+
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
+    private static final int REJECTED_LISTED = 100;
+
+    private final StockImportRepository stockImportRepository;
+    private final ObjectProvider<StockLedger> stockLedger;
+    private final AvailabilitySnapshot availabilitySnapshot;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    /**
+     * Imports CSV (header product_id,product_name,quantity,unit) or NDJSON
+     * (one {@link CreateInventoryItemRequest} per line). New products are
+     * created, existing ones get the imported name, unit and quantity.
+     * Any invalid row fails the whole import. Rows that would set an item's
+     * quantity below its reserved stock are not applied and reported as
+     * rejected; sharded items are reported as skipped.
+     */
+    @Transactional
+    public StockImportResponse importStock(MediaType contentType, InputStream body) {
+        if (stockLedger.getIfAvailable() != null) {
+            throw new ConflictException("Bulk import cannot be used together with the in-memory stock ledger");
+        }
+        long start = System.nanoTime();
+
+        stockImportRepository.createStagingTable();
+        long rowsRead = MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType)
+                ? copyNdjson(body)
+                : stockImportRepository.copyCsv(body);
+        StockImportRepository.UpsertCounts counts = stockImportRepository.upsert();
+        List<StockImportRepository.NotApplied> notApplied = stockImportRepository.findNotApplied();
+        List<String> rejected = notApplied.stream()
+                .filter(row -> !row.sharded())
+                .map(StockImportRepository.NotApplied::productId)
+                .toList();
+        availabilitySnapshot.resyncAfterCommit();
+
+        long elapsedNanos = System.nanoTime() - start;
+        long rowsPerSecond = Math.round(rowsRead * 1_000_000_000.0 / Math.max(elapsedNanos, 1));
+        log.info("Imported {} stock rows ({} inserted, {} updated, {} rejected) in {} ms, {} rows/s",
+                rowsRead, counts.inserted(), counts.updated(), rejected.size(),
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos), rowsPerSecond);
+        if (!rejected.isEmpty()) {
+            log.warn("Stock import left {} items unchanged because their imported quantity is below the reserved " +
+                    "stock: {}", rejected.size(), rejected.subList(0, Math.min(rejected.size(), REJECTED_LISTED)));
+        }
+
+        return StockImportResponse.builder()
+                .rowsRead(rowsRead)
+                .inserted(counts.inserted())
+                .updated(counts.updated())
+                .skipped(notApplied.size() - rejected.size())
+                .rejected(rejected.size())
+                .rejectedProductIds(rejected.subList(0, Math.min(rejected.size(), REJECTED_LISTED)))
+                .durationMs(TimeUnit.NANOSECONDS.toMillis(elapsedNanos))
+                .rowsPerSecond(rowsPerSecond)
+                .build();
+    }
+
+    /**
+     * Copies NDJSON rows after validating each one like a
+     * {@code POST /api/v1/inventory} body.
+     *
+     * @throws IllegalArgumentException naming the first invalid line
+     */
+    private long copyNdjson(InputStream body) {
+        return stockImportRepository.copyRows(writer -> {
+            try (MappingIterator<CreateInventoryItemRequest> items =
+                         objectMapper.readerFor(CreateInventoryItemRequest.class).readValues(body)) {
+                long line = 0;
+                while (items.hasNextValue()) {
+                    CreateInventoryItemRequest item = items.nextValue();
+                    line++;
+                    Set<ConstraintViolation<CreateInventoryItemRequest>> violations = validator.validate(item);
+                    if (!violations.isEmpty()) {
+                        throw new IllegalArgumentException("Invalid stock row " + line + ": " + violations.stream()
+                                .map(ConstraintViolation::getMessage)
+                                .sorted()
+                                .collect(Collectors.joining(", ")));
+                    }
+                    writer.write(item.getProductId(), item.getProductName(), item.getQuantity(), item.getUnit());
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,17 @@
+-- Idempotent-consumer store: one row per consumed message, keyed by topic and a
+-- business key (orderId) so producer resends are caught as well as redeliveries.
+CREATE TABLE IF NOT EXISTS processed_event (
+    topic VARCHAR(100) NOT NULL,
+    event_key VARCHAR(200) NOT NULL,
+    processed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (topic, event_key)
+);
+
+CREATE INDEX idx_processed_event_processed_at ON processed_event(processed_at);
+
+-- Orders reserved before this table existed count as processed
+INSERT INTO processed_event (topic, event_key, processed_at)
+SELECT 'order.created', CAST(order_id AS VARCHAR), MIN(created_at)
+FROM stock_reservation
+GROUP BY order_id
+ON CONFLICT DO NOTHING;
@@ -0,0 +1,6 @@
+-- DEAD parks events that used up their retries. They are never claimed by the
+-- relay again, only revived through the replay endpoint.
+UPDATE outbox_event SET status = 'DEAD', locked_by = NULL, locked_until = NULL
+WHERE status = 'FAILED' AND retry_count >= 3;
+
+CREATE INDEX idx_outbox_dead ON outbox_event(created_at) WHERE status = 'DEAD';
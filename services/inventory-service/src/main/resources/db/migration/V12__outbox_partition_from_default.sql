@@ -0,0 +1,40 @@
+-- Creating a daily partition fails while the default partition holds rows of
+-- that day, e.g. after the retention job was down over midnight. The function
+-- now moves those rows out of the default partition: it detaches the default
+-- partition, creates the daily one, copies the day's rows over and attaches the
+-- default partition again, all in the caller's transaction. Outbox writes wait
+-- on the table lock for as long as the move takes.
+
+CREATE OR REPLACE FUNCTION create_outbox_partition(day DATE) RETURNS VOID AS $$
+DECLARE
+    partition_name TEXT := 'outbox_event_p' || to_char(day, 'YYYYMMDD');
+BEGIN
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN;
+    END IF;
+
+    IF NOT EXISTS (SELECT 1 FROM outbox_event_default WHERE created_at >= day AND created_at < day + 1) THEN
+        EXECUTE format(
+            'CREATE TABLE IF NOT EXISTS %I PARTITION OF outbox_event FOR VALUES FROM (%L) TO (%L)',
+            partition_name, day, day + 1);
+        RETURN;
+    END IF;
+
+    LOCK TABLE outbox_event IN ACCESS EXCLUSIVE MODE;
+    -- Another instance may have moved the rows while we waited for the lock
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN;
+    END IF;
+
+    ALTER TABLE outbox_event DETACH PARTITION outbox_event_default;
+    EXECUTE format(
+        'CREATE TABLE %I PARTITION OF outbox_event FOR VALUES FROM (%L) TO (%L)',
+        partition_name, day, day + 1);
+    INSERT INTO outbox_event
+    SELECT * FROM outbox_event_default WHERE created_at >= day AND created_at < day + 1;
+    DELETE FROM outbox_event_default WHERE created_at >= day AND created_at < day + 1;
+    ALTER TABLE outbox_event ATTACH PARTITION outbox_event_default DEFAULT;
+
+    RAISE NOTICE 'Moved outbox rows of % out of the default partition into %', day, partition_name;
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,11 @@
+-- Lease columns for multi-instance outbox claiming (SELECT ... FOR UPDATE SKIP LOCKED)
+ALTER TABLE outbox_event
+ADD COLUMN IF NOT EXISTS locked_by VARCHAR(64);
+
+ALTER TABLE outbox_event
+ADD COLUMN IF NOT EXISTS locked_until TIMESTAMP;
+
+-- Only PENDING/FAILED rows are ever claimed, so keep PUBLISHED rows out of the index
+DROP INDEX IF EXISTS idx_outbox_status;
+CREATE INDEX idx_outbox_claimable ON outbox_event(status, created_at)
+    WHERE status IN ('PENDING', 'FAILED');
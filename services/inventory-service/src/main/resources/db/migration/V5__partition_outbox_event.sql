@@ -0,0 +1,55 @@
+-- Daily range partitioning of outbox_event by created_at.
+-- Old partitions are dropped (or detached into outbox_archive) by OutboxRetentionJob
+-- instead of deleting PUBLISHED rows one by one.
+
+CREATE SCHEMA IF NOT EXISTS outbox_archive;
+
+ALTER TABLE outbox_event RENAME TO outbox_event_legacy;
+ALTER SEQUENCE outbox_event_id_seq OWNED BY NONE;
+
+CREATE TABLE outbox_event (
+    id BIGINT NOT NULL DEFAULT nextval('outbox_event_id_seq'),
+    aggregate_id VARCHAR(255) NOT NULL,
+    aggregate_type VARCHAR(100) NOT NULL,
+    event_type VARCHAR(100) NOT NULL,
+    payload TEXT NOT NULL,
+    status VARCHAR(50) NOT NULL DEFAULT 'PENDING',
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    processed_at TIMESTAMP,
+    retry_count INTEGER NOT NULL DEFAULT 0,
+    last_attempt_at TIMESTAMP,
+    locked_by VARCHAR(64),
+    locked_until TIMESTAMP,
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+ALTER SEQUENCE outbox_event_id_seq OWNED BY outbox_event.id;
+
+-- Safety net for rows outside every daily partition (e.g. the retention job was down for days)
+CREATE TABLE outbox_event_default PARTITION OF outbox_event DEFAULT;
+
+CREATE OR REPLACE FUNCTION create_outbox_partition(day DATE) RETURNS VOID AS $$
+BEGIN
+    EXECUTE format(
+        'CREATE TABLE IF NOT EXISTS %I PARTITION OF outbox_event FOR VALUES FROM (%L) TO (%L)',
+        'outbox_event_p' || to_char(day, 'YYYYMMDD'), day, day + 1);
+END;
+$$ LANGUAGE plpgsql;
+
+-- Partitions for the existing rows plus a week ahead
+SELECT create_outbox_partition(d::date)
+FROM generate_series(
+    COALESCE((SELECT MIN(created_at)::date FROM outbox_event_legacy), CURRENT_DATE),
+    CURRENT_DATE + 7,
+    INTERVAL '1 day') AS d;
+
+INSERT INTO outbox_event (id, aggregate_id, aggregate_type, event_type, payload, status,
+                          created_at, processed_at, retry_count, last_attempt_at, locked_by, locked_until)
+SELECT id, aggregate_id, aggregate_type, event_type, payload, status,
+       created_at, processed_at, retry_count, last_attempt_at, locked_by, locked_until
+FROM outbox_event_legacy;
+
+DROP TABLE outbox_event_legacy;
+
+CREATE INDEX idx_outbox_claimable ON outbox_event(status, created_at)
+    WHERE status IN ('PENDING', 'FAILED');
@@ -0,0 +1,11 @@
+-- Support for the in-memory stock ledger (inventory.ledger.enabled).
+-- Commits made through the ledger decrement inventory_item.quantity write-behind;
+-- quantity_applied tracks which CONFIRMED reservations are already reflected there,
+-- so a restart can replay the ones lost with the in-memory buffer.
+ALTER TABLE stock_reservation
+ADD COLUMN IF NOT EXISTS quantity_applied BOOLEAN NOT NULL DEFAULT TRUE;
+
+CREATE INDEX idx_stock_reservation_unapplied ON stock_reservation(inventory_item_id)
+    WHERE NOT quantity_applied;
+CREATE INDEX idx_stock_reservation_reserved ON stock_reservation(inventory_item_id)
+    WHERE status = 'RESERVED';
@@ -0,0 +1,17 @@
+-- Sharded stock counters for contended inventory items.
+-- A sharded item (shard_count > 0) keeps its stock in inventory_item_shard rows;
+-- inventory_item.quantity/reserved_quantity then hold the aggregate, synced by ShardRebalanceJob.
+ALTER TABLE inventory_item
+ADD COLUMN IF NOT EXISTS shard_count INTEGER NOT NULL DEFAULT 0;
+
+ALTER TABLE stock_reservation
+ADD COLUMN IF NOT EXISTS shard_no INTEGER;
+
+CREATE TABLE IF NOT EXISTS inventory_item_shard (
+    inventory_item_id BIGINT NOT NULL REFERENCES inventory_item(id),
+    shard_no INTEGER NOT NULL,
+    quantity INTEGER NOT NULL DEFAULT 0,
+    reserved_quantity INTEGER NOT NULL DEFAULT 0,
+    PRIMARY KEY (inventory_item_id, shard_no),
+    CHECK (reserved_quantity >= 0 AND reserved_quantity <= quantity)
+);
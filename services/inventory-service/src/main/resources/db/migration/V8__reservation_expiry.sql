@@ -0,0 +1,8 @@
+-- Reservation TTL: RESERVED rows whose expires_at has passed are released by the
+-- expiry job. expires_at is cleared once the order is paid, so paid orders keep
+-- their stock until it is committed or released explicitly.
+ALTER TABLE stock_reservation
+ADD COLUMN IF NOT EXISTS expires_at TIMESTAMP;
+
+CREATE INDEX idx_stock_reservation_expiry ON stock_reservation(expires_at)
+    WHERE status = 'RESERVED' AND expires_at IS NOT NULL;
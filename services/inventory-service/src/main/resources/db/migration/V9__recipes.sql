@@ -0,0 +1,17 @@
+-- Bill of materials: how much of which stock item one unit of a catalog product uses.
+-- Products without a recipe are reserved as stock items themselves.
+CREATE TABLE IF NOT EXISTS recipe_line (
+    product_id VARCHAR(100) NOT NULL,
+    ingredient_id VARCHAR(100) NOT NULL REFERENCES inventory_item(product_id),
+    quantity INTEGER NOT NULL CHECK (quantity > 0),
+    PRIMARY KEY (product_id, ingredient_id)
+);
+
+-- Bumped on every recipe change so instances can cheaply detect that their
+-- in-memory recipe table is stale.
+CREATE TABLE IF NOT EXISTS recipe_book_version (
+    id INTEGER PRIMARY KEY CHECK (id = 1),
+    version BIGINT NOT NULL
+);
+
+INSERT INTO recipe_book_version (id, version) VALUES (1, 0) ON CONFLICT DO NOTHING;
@@ -0,0 +1,83 @@
+package com.pizzaflow.inventory.availability;
+
+import com.pizzaflow.inventory.domain.InventoryItem;
+import com.pizzaflow.inventory.dto.AvailabilityResponse;
+import com.pizzaflow.inventory.dto.ProductAvailability;
+import com.pizzaflow.inventory.repository.InventoryItemRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AvailabilitySnapshotTest {
+
+    private final InventoryItemRepository inventoryItemRepository = mock(InventoryItemRepository.class);
+    private AvailabilitySnapshot snapshot;
+
+    @BeforeEach
+    void load() {
+        when(inventoryItemRepository.findAll()).thenReturn(List.of(item(1L, "DOUGH", 100), item(2L, "CHEESE", 50)));
+        snapshot = new AvailabilitySnapshot(inventoryItemRepository);
+        snapshot.load();
+    }
+
+    @Test
+    void returnsOnlyProductsChangedSinceVersion() {
+        String version = snapshot.full().getVersion();
+        snapshot.adjustProductsAfterCommit(Map.of("CHEESE", -5));
+
+        AvailabilityResponse changes = snapshot.changesSince(version);
+
+        assertThat(changes.isFull()).isFalse();
+        assertThat(changes.getItems()).extracting(ProductAvailability::getProductId).containsExactly("CHEESE");
+        assertThat(changes.getItems().get(0).getAvailableQuantity()).isEqualTo(45);
+        assertThat(snapshot.changesSince(changes.getVersion())).isNull();
+    }
+
+    @Test
+    void versionOfAnotherProcessGetsFullSnapshot() {
+        AvailabilitySnapshot otherInstance = new AvailabilitySnapshot(inventoryItemRepository);
+        otherInstance.load();
+        String foreignVersion = otherInstance.full().getVersion();
+
+        // Both loaded the same two products, so only the epoch tells the versions apart
+        assertThat(foreignVersion).isNotEqualTo(snapshot.full().getVersion());
+        assertThat(snapshot.changesSince(foreignVersion).isFull()).isTrue();
+        assertThat(snapshot.changesSince("2").isFull()).isTrue();
+        assertThat(snapshot.changesSince("garbage-x").isFull()).isTrue();
+    }
+
+    @Test
+    void resyncKeepsProductsAdjustedWhileTheTableWasRead() {
+        // The adjust lands between the resync's read and its apply
+        when(inventoryItemRepository.findAll()).thenAnswer(invocation -> {
+            snapshot.adjustProductsAfterCommit(Map.of("DOUGH", -10));
+            return List.of(item(1L, "DOUGH", 100), item(2L, "CHEESE", 40));
+        });
+
+        snapshot.resync();
+
+        assertThat(snapshot.full().getItems())
+                .extracting(ProductAvailability::getProductId, ProductAvailability::getAvailableQuantity)
+                .containsExactly(
+                        tuple("CHEESE", 40),
+                        tuple("DOUGH", 90));
+    }
+
+    private static InventoryItem item(long id, String productId, int available) {
+        return InventoryItem.builder()
+                .id(id)
+                .productId(productId)
+                .productName(productId)
+                .quantity(available)
+                .reservedQuantity(0)
+                .unit("kg")
+                .build();
+    }
+}
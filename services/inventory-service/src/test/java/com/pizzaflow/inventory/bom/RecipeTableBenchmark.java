@@ -0,0 +1,104 @@
+package com.pizzaflow.inventory.bom;
+
+import com.pizzaflow.inventory.repository.RecipeRepository.RecipeLine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Expansion of a 20-item order over a 30-product menu (6 ingredients each,
+ * the dough nested one level) with the precompiled {@link RecipeTable},
+ * against resolving the same recipe lines with map merges on every call.
+ * Run {@link #main} from the test classpath, e.g.
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.pizzaflow.inventory.bom.RecipeTableBenchmark};
+ * the GC profiler reports the bytes allocated per expansion (gc.alloc.rate.norm).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecipeTableBenchmark {
+
+    private static final int PRODUCTS = 30;
+    private static final int STOCK_ITEMS = 40;
+    private static final int ORDER_ITEMS = 20;
+
+    private RecipeTable table;
+    private Map<String, List<RecipeLine>> recipeLines;
+    private Map<String, Integer> order;
+
+    @Setup
+    public void setUp() {
+        List<RecipeLine> lines = new ArrayList<>();
+        lines.add(new RecipeLine("DOUGH_BALL", "FLOUR", 5));
+        lines.add(new RecipeLine("DOUGH_BALL", "WATER", 3));
+        for (int p = 0; p < PRODUCTS; p++) {
+            String productId = "PIZZA_" + p;
+            lines.add(new RecipeLine(productId, "DOUGH_BALL", 1));
+            for (int i = 0; i < 5; i++) {
+                lines.add(new RecipeLine(productId, "STOCK_" + ((p * 7 + i * 3) % STOCK_ITEMS), i + 1));
+            }
+        }
+        table = RecipeTable.compile(lines);
+
+        recipeLines = new HashMap<>();
+        lines.forEach(line -> recipeLines.computeIfAbsent(line.productId(), id -> new ArrayList<>()).add(line));
+
+        order = new LinkedHashMap<>();
+        for (int i = 0; i < ORDER_ITEMS; i++) {
+            order.put("PIZZA_" + (i * 3 % PRODUCTS), 1 + i % 3);
+        }
+    }
+
+    @Benchmark
+    public List<Map.Entry<String, Integer>> precompiledTable() {
+        return table.expand(order);
+    }
+
+    @Benchmark
+    public List<Map.Entry<String, Integer>> mapMerge() {
+        Map<String, Integer> totals = new TreeMap<>();
+        order.forEach((productId, quantity) -> mergeInto(totals, productId, quantity));
+        return new ArrayList<>(totals.entrySet());
+    }
+
+    private void mergeInto(Map<String, Integer> totals, String productId, int quantity) {
+        List<RecipeLine> lines = recipeLines.get(productId);
+        if (lines == null) {
+            totals.merge(productId, quantity, Integer::sum);
+            return;
+        }
+        for (RecipeLine line : lines) {
+            mergeInto(totals, line.ingredientId(), line.quantity() * quantity);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RecipeTableBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,108 @@
+package com.pizzaflow.inventory.bom;
+
+import com.pizzaflow.inventory.repository.RecipeRepository.RecipeLine;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RecipeTableTest {
+
+    private final RecipeTable table = RecipeTable.compile(List.of(
+            new RecipeLine("MARGHERITA", "DOUGH_BALL", 1),
+            new RecipeLine("MARGHERITA", "TOMATO_SAUCE", 2),
+            new RecipeLine("MARGHERITA", "CHEESE", 3),
+            new RecipeLine("CALZONE", "DOUGH_BALL", 2),
+            new RecipeLine("CALZONE", "CHEESE", 4),
+            // Nested: a dough ball is made of flour and water
+            new RecipeLine("DOUGH_BALL", "FLOUR", 5),
+            new RecipeLine("DOUGH_BALL", "WATER", 3)));
+
+    @Test
+    void multipliesRecipeQuantitiesByOrderedQuantity() {
+        assertThat(table.expand(Map.of("MARGHERITA", 2))).containsExactly(
+                Map.entry("CHEESE", 6),
+                Map.entry("FLOUR", 10),
+                Map.entry("TOMATO_SAUCE", 4),
+                Map.entry("WATER", 6));
+    }
+
+    @Test
+    void flattensNestedRecipesAndAggregatesSharedIngredients() {
+        Map<String, Integer> order = new LinkedHashMap<>();
+        order.put("MARGHERITA", 1);
+        order.put("CALZONE", 2);
+        order.put("DOUGH_BALL", 1);
+
+        // Dough balls: 1 + 2 * 2 + 1 = 6, each 5 flour and 3 water
+        assertThat(table.expand(order)).containsExactly(
+                Map.entry("CHEESE", 11),
+                Map.entry("FLOUR", 30),
+                Map.entry("TOMATO_SAUCE", 2),
+                Map.entry("WATER", 18));
+    }
+
+    @Test
+    void unknownProductsPassThroughSortedWithTheIngredients() {
+        Map<String, Integer> order = new LinkedHashMap<>();
+        order.put("COLA", 2);
+        order.put("MARGHERITA", 1);
+        order.put("BASIL", 1);
+
+        assertThat(table.expand(order)).containsExactly(
+                Map.entry("BASIL", 1),
+                Map.entry("CHEESE", 3),
+                Map.entry("COLA", 2),
+                Map.entry("FLOUR", 5),
+                Map.entry("TOMATO_SAUCE", 2),
+                Map.entry("WATER", 3));
+    }
+
+    @Test
+    void ingredientOrderedOnItsOwnDrawsFromTheSameStockItem() {
+        Map<String, Integer> order = new LinkedHashMap<>();
+        order.put("MARGHERITA", 1);
+        order.put("CHEESE", 2);
+
+        assertThat(table.expand(order)).contains(Map.entry("CHEESE", 5));
+    }
+
+    @Test
+    void scratchBufferIsResetBetweenExpansions() {
+        table.expand(Map.of("CALZONE", 3));
+
+        assertThat(table.expand(Map.of("CALZONE", 1))).containsExactly(
+                Map.entry("CHEESE", 4),
+                Map.entry("FLOUR", 10),
+                Map.entry("WATER", 6));
+        assertThat(table.expand(Map.of())).isEmpty();
+    }
+
+    @Test
+    void overflowingOrderIsRejectedAndLeavesTheScratchBufferClean() {
+        Map<String, Integer> order = new LinkedHashMap<>();
+        order.put("MARGHERITA", 1);
+        order.put("CALZONE", Integer.MAX_VALUE / 4);
+
+        assertThatThrownBy(() -> table.expand(order)).isInstanceOf(ArithmeticException.class);
+        assertThat(table.expand(Map.of("MARGHERITA", 1))).containsExactly(
+                Map.entry("CHEESE", 3),
+                Map.entry("FLOUR", 5),
+                Map.entry("TOMATO_SAUCE", 2),
+                Map.entry("WATER", 3));
+    }
+
+    @Test
+    void rejectsRecipeCycles() {
+        assertThatThrownBy(() -> RecipeTable.compile(List.of(
+                new RecipeLine("A", "B", 1),
+                new RecipeLine("B", "C", 1),
+                new RecipeLine("C", "A", 1))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("cycle");
+    }
+}
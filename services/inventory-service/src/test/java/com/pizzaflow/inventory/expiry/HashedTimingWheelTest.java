@@ -0,0 +1,127 @@
+package com.pizzaflow.inventory.expiry;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HashedTimingWheelTest {
+
+    private static final long TICK = 10;
+    private static final long START = 1_000_000;
+
+    // 8 buckets of 10 ms: one revolution is 80 ms
+    private final HashedTimingWheel wheel = new HashedTimingWheel(TICK, 8, START);
+    private final List<Long> fired = new ArrayList<>();
+
+    @Test
+    void firesAtDeadlineAndNotBefore() {
+        wheel.schedule(1, START + 50);
+
+        assertThat(wheel.advance(START + 49, fired::add)).isZero();
+        assertThat(wheel.size()).isEqualTo(1);
+        assertThat(wheel.advance(START + 50, fired::add)).isEqualTo(1);
+        assertThat(fired).containsExactly(1L);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void deadlineBeyondOneRevolutionWaitsOutItsRounds() {
+        // 1000 ms is 12.5 revolutions; the bucket is visited 12 times before it is due
+        wheel.schedule(1, START + 1000);
+
+        for (long now = START; now < START + 1000; now += TICK) {
+            wheel.advance(now, fired::add);
+        }
+        assertThat(fired).isEmpty();
+        wheel.advance(START + 1000, fired::add);
+        assertThat(fired).containsExactly(1L);
+    }
+
+    @Test
+    void advanceOverSeveralRevolutionsFiresEverythingDue() {
+        wheel.schedule(1, START + 30);
+        wheel.schedule(2, START + 250);
+        wheel.schedule(3, START + 700);
+        wheel.schedule(4, START + 710);
+
+        assertThat(wheel.advance(START + 700, fired::add)).isEqualTo(3);
+        assertThat(fired).containsExactly(1L, 2L, 3L);
+        assertThat(wheel.advance(START + 710, fired::add)).isEqualTo(1);
+    }
+
+    @Test
+    void overdueDeadlineFiresOnNextTick() {
+        wheel.advance(START + 200, fired::add);
+        wheel.schedule(1, START - 5_000);
+
+        assertThat(wheel.advance(START + 210, fired::add)).isEqualTo(1);
+        assertThat(fired).containsExactly(1L);
+    }
+
+    @Test
+    void keyScheduledTwiceFiresTwice() {
+        wheel.schedule(1, START + 20);
+        wheel.schedule(1, START + 90);
+
+        wheel.advance(START + 100, fired::add);
+        assertThat(fired).containsExactly(1L, 1L);
+    }
+
+    @Test
+    void cancelledKeyDoesNotFire() {
+        wheel.schedule(1, START + 20);
+        wheel.schedule(1, START + 500);
+        wheel.schedule(2, START + 20);
+        wheel.cancel(1);
+
+        assertThat(wheel.advance(START + 1000, fired::add)).isEqualTo(1);
+        assertThat(fired).containsExactly(2L);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void cancelOnlyAffectsEarlierSchedules() {
+        wheel.schedule(1, START + 20);
+        wheel.cancel(1);
+        wheel.schedule(1, START + 40);
+
+        wheel.advance(START + 100, fired::add);
+        assertThat(fired).containsExactly(1L);
+    }
+
+    @Test
+    void cancelAfterTransferStillApplies() {
+        wheel.schedule(1, START + 200);
+        wheel.advance(START + 10, fired::add);
+        assertThat(wheel.size()).isEqualTo(1);
+
+        wheel.cancel(1);
+        wheel.advance(START + 300, fired::add);
+        assertThat(fired).isEmpty();
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void firedKeyCanBeCancelledAndRescheduled() {
+        wheel.schedule(1, START + 20);
+        wheel.schedule(1, START + 60);
+        wheel.advance(START + 30, fired::add);
+
+        // Only the remaining timeout of the key is cancelled
+        wheel.cancel(1);
+        wheel.schedule(1, START + 90);
+        wheel.advance(START + 100, fired::add);
+        assertThat(fired).containsExactly(1L, 1L);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void rejectsNonPositiveSettings() {
+        assertThatThrownBy(() -> new HashedTimingWheel(0, 8, START)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new HashedTimingWheel(10, 0, START)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,169 @@
+package com.pizzaflow.inventory.ledger;
+
+import com.pizzaflow.inventory.domain.InventoryItem;
+import com.pizzaflow.inventory.repository.InventoryItemRepository;
+import com.pizzaflow.inventory.repository.StockLedgerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Ledger invariants under concurrent reserve/release: available stock never
+ * goes negative and available plus reserved always adds up to the stock the
+ * ledger was built with. Runs outside a transaction, so every change applies
+ * immediately.
+ */
+class StockLedgerTest {
+
+    private static final long DOUGH_ID = 1L;
+    private static final long CHEESE_ID = 2L;
+    private static final int STOCK = 500;
+
+    private final Map<Long, LongAdder> flushedReserved = new ConcurrentHashMap<>();
+    private StockLedger stockLedger;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void buildLedger() {
+        StockLedgerRepository stockLedgerRepository = mock(StockLedgerRepository.class);
+        doAnswer(invocation -> {
+            List<StockLedgerRepository.ItemDelta> deltas = invocation.getArgument(0);
+            deltas.forEach(delta -> flushedReserved
+                    .computeIfAbsent(delta.itemId(), id -> new LongAdder()).add(delta.reservedDelta()));
+            return null;
+        }).when(stockLedgerRepository).applyFlush(anyList(), anyList());
+
+        InventoryItemRepository inventoryItemRepository = mock(InventoryItemRepository.class);
+        when(inventoryItemRepository.findAll()).thenReturn(List.of(
+                item(DOUGH_ID, "DOUGH"),
+                item(CHEESE_ID, "CHEESE")));
+
+        stockLedger = new StockLedger(stockLedgerRepository, inventoryItemRepository);
+        stockLedger.rebuild();
+    }
+
+    @Test
+    void concurrentReserveAndReleaseKeepStockConsistent() throws Exception {
+        int workers = 16;
+        int iterations = 5_000;
+        AtomicLong heldDough = new AtomicLong();
+        AtomicLong heldCheese = new AtomicLong();
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong lowestAvailable = new AtomicLong(Long.MAX_VALUE);
+
+        ExecutorService pool = Executors.newFixedThreadPool(workers + 2);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            // Samples available stock and flushes write-behind deltas while the workers run
+            Future<?> observer = pool.submit(() -> {
+                start.await();
+                while (running.get()) {
+                    lowestAvailable.accumulateAndGet(
+                            Math.min(stockLedger.available("DOUGH"), stockLedger.available("CHEESE")), Math::min);
+                    stockLedger.flush();
+                }
+                return null;
+            });
+
+            List<Future<?>> runs = new ArrayList<>();
+            for (int w = 0; w < workers; w++) {
+                runs.add(pool.submit(() -> {
+                    start.await();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    Deque<int[]> held = new ArrayDeque<>();
+                    for (int i = 0; i < iterations; i++) {
+                        if (held.isEmpty() || random.nextBoolean()) {
+                            int dough = random.nextInt(1, 4);
+                            int cheese = random.nextInt(1, 4);
+                            if (stockLedger.reserve(List.of(Map.entry("DOUGH", dough), Map.entry("CHEESE", cheese)))
+                                    .isEmpty()) {
+                                held.add(new int[]{dough, cheese});
+                            }
+                        } else {
+                            int[] reservation = held.poll();
+                            stockLedger.release(DOUGH_ID, reservation[0]);
+                            stockLedger.release(CHEESE_ID, reservation[1]);
+                        }
+                    }
+                    held.forEach(reservation -> {
+                        heldDough.addAndGet(reservation[0]);
+                        heldCheese.addAndGet(reservation[1]);
+                    });
+                    return null;
+                }));
+            }
+
+            start.countDown();
+            for (Future<?> run : runs) {
+                run.get(60, TimeUnit.SECONDS);
+            }
+            running.set(false);
+            observer.get(10, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+        stockLedger.flush();
+
+        assertThat(lowestAvailable.get()).isGreaterThanOrEqualTo(0);
+        assertThat(stockLedger.available("DOUGH")).isGreaterThanOrEqualTo(0);
+        assertThat(stockLedger.available("CHEESE")).isGreaterThanOrEqualTo(0);
+
+        assertThat(flushed(DOUGH_ID)).isEqualTo(heldDough.get());
+        assertThat(flushed(CHEESE_ID)).isEqualTo(heldCheese.get());
+        assertThat(stockLedger.available("DOUGH") + flushed(DOUGH_ID)).isEqualTo(STOCK);
+        assertThat(stockLedger.available("CHEESE") + flushed(CHEESE_ID)).isEqualTo(STOCK);
+    }
+
+    @Test
+    void shortLineReservesNothing() {
+        List<Map.Entry<String, Integer>> shortLines = stockLedger.reserve(List.of(
+                Map.entry("DOUGH", 10),
+                Map.entry("CHEESE", STOCK + 1)));
+
+        assertThat(shortLines).containsExactly(Map.entry("CHEESE", STOCK + 1));
+        assertThat(stockLedger.available("DOUGH")).isEqualTo(STOCK);
+        assertThat(stockLedger.available("CHEESE")).isEqualTo(STOCK);
+    }
+
+    @Test
+    void unknownProductIsShort() {
+        assertThat(stockLedger.reserve(List.of(Map.entry("BASIL", 1)))).containsExactly(Map.entry("BASIL", 1));
+    }
+
+    private long flushed(long itemId) {
+        LongAdder reserved = flushedReserved.get(itemId);
+        return reserved != null ? reserved.sum() : 0;
+    }
+
+    private static InventoryItem item(long id, String productId) {
+        return InventoryItem.builder()
+                .id(id)
+                .productId(productId)
+                .productName(productId)
+                .quantity(STOCK)
+                .reservedQuantity(0)
+                .unit("kg")
+                .build();
+    }
+}
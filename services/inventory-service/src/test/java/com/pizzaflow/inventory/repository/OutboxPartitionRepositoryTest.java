@@ -0,0 +1,76 @@
+package com.pizzaflow.inventory.repository;
+
+import com.pizzaflow.inventory.support.PostgresTestSupport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Import(OutboxPartitionRepository.class)
+class OutboxPartitionRepositoryTest extends PostgresTestSupport {
+
+    @Autowired
+    private OutboxPartitionRepository outboxPartitionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void cleanOutbox() {
+        jdbcTemplate.execute("TRUNCATE outbox_event");
+    }
+
+    @Test
+    void countsUnpublishedExactlyAndEstimatesPublished() {
+        insertEvents("PUBLISHED", 300);
+        insertEvents("PENDING", 7);
+        insertEvents("FAILED", 2);
+        insertEvents("DEAD", 1);
+        jdbcTemplate.execute("ANALYZE outbox_event");
+
+        assertThat(outboxPartitionRepository.countByStatus())
+                .containsEntry("PENDING", 7L)
+                .containsEntry("FAILED", 2L)
+                .containsEntry("DEAD", 1L)
+                .containsEntry("PUBLISHED", 300L);
+    }
+
+    @Test
+    void createPartitionMovesThatDaysRowsOutOfTheDefaultPartition() {
+        // Beyond the pre-created week, so both days land in the default partition
+        LocalDate day = LocalDate.now().plusDays(40);
+        insertEventsOn(day, 3);
+        insertEventsOn(day.plusDays(1), 2);
+
+        outboxPartitionRepository.createPartition(day);
+        outboxPartitionRepository.createPartition(day);
+
+        String partition = "outbox_event_p" + day.format(DateTimeFormatter.BASIC_ISO_DATE);
+        assertThat(outboxPartitionRepository.findDailyPartitions()).contains(partition);
+        assertThat(count(partition)).isEqualTo(3);
+        assertThat(count("outbox_event_default")).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pg_inherits " +
+                "WHERE inhrelid = 'outbox_event_default'::regclass", Long.class)).isEqualTo(1);
+    }
+
+    private void insertEventsOn(LocalDate day, int count) {
+        jdbcTemplate.update("INSERT INTO outbox_event (aggregate_id, aggregate_type, event_type, payload, status, " +
+                "created_at) SELECT g::TEXT, 'Order', 'INVENTORY_RESERVED', '{}', 'PUBLISHED', ? " +
+                "FROM generate_series(1, ?) g", day.atTime(12, 0), count);
+    }
+
+    private long count(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+    }
+
+    private void insertEvents(String status, int count) {
+        jdbcTemplate.update("INSERT INTO outbox_event (aggregate_id, aggregate_type, event_type, payload, status) " +
+                "SELECT g::TEXT, 'Order', 'INVENTORY_RESERVED', '{}', ? FROM generate_series(1, ?) g", status, count);
+    }
+}
@@ -0,0 +1,149 @@
+package com.pizzaflow.inventory.repository;
+
+import com.pizzaflow.inventory.support.PostgresTestSupport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Sharded stock counters against a real Postgres: splitting, concurrent
+ * reservations, rebalancing and the aggregate copy on inventory_item.
+ */
+@Import(ShardedStockRepository.class)
+class ShardedStockRepositoryTest extends PostgresTestSupport {
+
+    @Autowired
+    private ShardedStockRepository shardedStockRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void cleanStock() {
+        jdbcTemplate.execute("TRUNCATE inventory_item, inventory_item_shard, stock_reservation, recipe_line CASCADE");
+    }
+
+    @Test
+    void createShardsKeepsReservationsOnShardZeroAndSpreadsAvailableStock() {
+        long itemId = insertItem("CHEESE", 103, 3);
+
+        assertThat(shardedStockRepository.createShards(itemId, 4)).isTrue();
+
+        assertThat(shards(itemId)).containsExactly(
+                new int[]{0, 28, 3},
+                new int[]{1, 25, 0},
+                new int[]{2, 25, 0},
+                new int[]{3, 25, 0});
+        assertThat(jdbcTemplate.queryForObject("SELECT shard_count FROM inventory_item WHERE id = ?",
+                Integer.class, itemId)).isEqualTo(4);
+        // Already sharded
+        assertThat(shardedStockRepository.createShards(itemId, 8)).isFalse();
+    }
+
+    @Test
+    void concurrentReservationsNeverOversellAnyShard() throws Exception {
+        long itemId = insertItem("CHEESE", 200, 0);
+        shardedStockRepository.createShards(itemId, 4);
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < 100; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return tx.execute(status -> shardedStockRepository.reserve("CHEESE", 3));
+                }));
+            }
+            start.countDown();
+            int reserved = 0;
+            for (Future<Integer> result : results) {
+                if (result.get(30, TimeUnit.SECONDS) != null) {
+                    reserved++;
+                }
+            }
+            assertThat(shards(itemId).stream().mapToInt(shard -> shard[2]).sum()).isEqualTo(reserved * 3);
+
+            // Whatever the race left over can still be reserved: 50 units per shard serve 16 reservations each
+            while (shardedStockRepository.reserve("CHEESE", 3) != null) {
+                reserved++;
+            }
+            assertThat(reserved).isEqualTo(64);
+            assertThat(shards(itemId)).allSatisfy(shard -> assertThat(shard[2]).isEqualTo(48));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void unshardedProductIsNotReserved() {
+        insertItem("DOUGH", 100, 0);
+
+        assertThat(shardedStockRepository.reserve("DOUGH", 1)).isNull();
+    }
+
+    @Test
+    void rebalanceRefillsDrainedShardsAndKeepsTotals() {
+        long itemId = insertItem("CHEESE", 100, 0);
+        shardedStockRepository.createShards(itemId, 2);
+        jdbcTemplate.update("UPDATE inventory_item_shard SET reserved_quantity = 45 WHERE inventory_item_id = ? " +
+                "AND shard_no = 0", itemId);
+
+        assertThat(shardedStockRepository.rebalance(itemId)).isTrue();
+
+        // 55 available in total, spread 28 / 27 on top of the reserved amounts
+        assertThat(shards(itemId)).containsExactly(
+                new int[]{0, 73, 45},
+                new int[]{1, 27, 0});
+        assertThat(shardedStockRepository.rebalance(itemId)).isFalse();
+    }
+
+    @Test
+    void syncAggregateCopiesShardTotals() {
+        long itemId = insertItem("CHEESE", 100, 0);
+        shardedStockRepository.createShards(itemId, 4);
+        int shardNo = shardedStockRepository.reserve("CHEESE", 10);
+        shardedStockRepository.commit(itemId, shardNo, 5);
+
+        shardedStockRepository.syncAggregate(itemId);
+
+        int[] item = jdbcTemplate.queryForObject(
+                "SELECT quantity, reserved_quantity FROM inventory_item WHERE id = ?",
+                (rs, rowNum) -> new int[]{rs.getInt(1), rs.getInt(2)}, itemId);
+        int[] totals = jdbcTemplate.queryForObject(
+                "SELECT SUM(quantity), SUM(reserved_quantity) FROM inventory_item_shard WHERE inventory_item_id = ?",
+                (rs, rowNum) -> new int[]{rs.getInt(1), rs.getInt(2)}, itemId);
+        assertThat(item).containsExactly(totals);
+    }
+
+    private long insertItem(String productId, int quantity, int reserved) {
+        return jdbcTemplate.queryForObject("INSERT INTO inventory_item (product_id, product_name, quantity, " +
+                        "reserved_quantity, unit) VALUES (?, ?, ?, ?, 'kg') RETURNING id",
+                Long.class, productId, productId, quantity, reserved);
+    }
+
+    private List<int[]> shards(long itemId) {
+        return jdbcTemplate.query(
+                "SELECT shard_no, quantity, reserved_quantity FROM inventory_item_shard " +
+                        "WHERE inventory_item_id = ? ORDER BY shard_no",
+                (rs, rowNum) -> new int[]{rs.getInt(1), rs.getInt(2), rs.getInt(3)}, itemId);
+    }
+}
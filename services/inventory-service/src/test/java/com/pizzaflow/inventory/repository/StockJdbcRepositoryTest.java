@@ -0,0 +1,112 @@
+package com.pizzaflow.inventory.repository;
+
+import com.pizzaflow.inventory.support.PostgresTestSupport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Guarded reservation UPDATEs against a real Postgres: concurrent reservations
+ * never oversell and sharded items are left to {@link ShardedStockRepository}.
+ */
+@Import(StockJdbcRepository.class)
+class StockJdbcRepositoryTest extends PostgresTestSupport {
+
+    @Autowired
+    private StockJdbcRepository stockJdbcRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void cleanStock() {
+        jdbcTemplate.execute("TRUNCATE inventory_item, inventory_item_shard, stock_reservation, recipe_line CASCADE");
+    }
+
+    @Test
+    void concurrentReservationsNeverOversell() throws Exception {
+        insertItem("DOUGH", 100, 0);
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        int callers = 50;
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < callers; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return tx.execute(status -> stockJdbcRepository.reserve(List.of(Map.entry("DOUGH", 3)))[0]);
+                }));
+            }
+            start.countDown();
+            int reserved = 0;
+            for (Future<Integer> result : results) {
+                reserved += result.get(30, TimeUnit.SECONDS);
+            }
+
+            // Every blocked UPDATE re-checks the guard against the committed row, so exactly 100 / 3 succeed
+            assertThat(reserved).isEqualTo(33);
+            assertThat(reservedQuantity("DOUGH")).isEqualTo(99);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void shortUnknownAndShardedLinesAreNotReserved() {
+        insertItem("DOUGH", 3, 0);
+        insertItem("CHEESE", 10, 0);
+        insertItem("TOMATO_SAUCE", 10, 4);
+
+        int[] updated = new TransactionTemplate(transactionManager).execute(status -> stockJdbcRepository.reserve(List.of(
+                Map.entry("CHEESE", 5),
+                Map.entry("DOUGH", 5),
+                Map.entry("BASIL", 1),
+                Map.entry("TOMATO_SAUCE", 1))));
+
+        assertThat(updated).containsExactly(1, 0, 0, 0);
+        assertThat(reservedQuantity("CHEESE")).isEqualTo(5);
+        assertThat(reservedQuantity("DOUGH")).isZero();
+        assertThat(reservedQuantity("TOMATO_SAUCE")).isZero();
+    }
+
+    @Test
+    void releaseNeverDropsBelowZero() {
+        insertItem("DOUGH", 10, 0);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            stockJdbcRepository.reserve(List.of(Map.entry("DOUGH", 2)));
+            stockJdbcRepository.release(List.of(Map.entry("DOUGH", 5)));
+        });
+
+        assertThat(reservedQuantity("DOUGH")).isZero();
+    }
+
+    private void insertItem(String productId, int quantity, int shardCount) {
+        jdbcTemplate.update("INSERT INTO inventory_item (product_id, product_name, quantity, reserved_quantity, unit, " +
+                "shard_count) VALUES (?, ?, ?, 0, 'kg', ?)", productId, productId, quantity, shardCount);
+    }
+
+    private int reservedQuantity(String productId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT reserved_quantity FROM inventory_item WHERE product_id = ?", Integer.class, productId);
+    }
+}
@@ -0,0 +1,120 @@
+package com.pizzaflow.inventory.scheduler;
+
+import com.pizzaflow.inventory.config.OutboxProperties;
+import com.pizzaflow.inventory.domain.OutboxEvent;
+import com.pizzaflow.inventory.domain.OutboxStatus;
+import com.pizzaflow.inventory.repository.OutboxEventRepository;
+import com.pizzaflow.inventory.support.PostgresTestSupport;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drain rate of the batch relay against an embedded Kafka broker. The old
+ * relay published one page of 100 events per 5 second tick (20 events/s);
+ * a single run of the batch relay has to work off a backlog at ten times
+ * that rate or better. The measured rate is logged.
+ */
+@EmbeddedKafka(partitions = 3, topics = OutboxDrainRateTest.TOPIC)
+class OutboxDrainRateTest extends PostgresTestSupport {
+
+    static final String TOPIC = "inventory.reserved";
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxDrainRateTest.class);
+
+    private static final int BACKLOG = 5000;
+    private static final double OLD_EVENTS_PER_SECOND = 100 / 5.0;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private EmbeddedKafkaBroker broker;
+
+    private DefaultKafkaProducerFactory<String, Object> producerFactory;
+
+    @BeforeEach
+    void setUp() {
+        outboxEventRepository.deleteAllInBatch();
+        Map<String, Object> props = KafkaTestUtils.producerProps(broker);
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        producerFactory = new DefaultKafkaProducerFactory<>(props);
+    }
+
+    @AfterEach
+    void closeProducer() {
+        producerFactory.destroy();
+    }
+
+    @Test
+    void drainsBacklogAtLeastTenTimesFasterThanOnePagePerTick() {
+        outboxEventRepository.saveAll(IntStream.range(0, BACKLOG)
+                .mapToObj(OutboxDrainRateTest::pending)
+                .toList());
+
+        OutboxProperties properties = new OutboxProperties();
+        properties.setMaxBatchesPerRun(BACKLOG / properties.getBatchSize());
+        OutboxEventScheduler relay = new OutboxEventScheduler(outboxEventRepository,
+                new KafkaTemplate<>(producerFactory), properties, new OutboxMetrics(new SimpleMeterRegistry()));
+
+        long started = System.nanoTime();
+        relay.drainPendingEvents();
+        double seconds = (System.nanoTime() - started) / 1e9;
+        double eventsPerSecond = BACKLOG / seconds;
+        log.info("Drained {} outbox events in {} ms: {} events/s ({}x the one-page-per-tick relay)",
+                BACKLOG, Math.round(seconds * 1000), Math.round(eventsPerSecond),
+                Math.round(eventsPerSecond / OLD_EVENTS_PER_SECOND));
+
+        assertThat(outboxEventRepository.findAll())
+                .allSatisfy(event -> assertThat(event.getStatus()).isEqualTo(OutboxStatus.PUBLISHED));
+        assertThat(recordsOnBroker()).isEqualTo(BACKLOG);
+        assertThat(eventsPerSecond).isGreaterThanOrEqualTo(10 * OLD_EVENTS_PER_SECOND);
+    }
+
+    private long recordsOnBroker() {
+        Map<String, Object> props = KafkaTestUtils.consumerProps("drain-rate", "false", broker);
+        try (Consumer<String, String> consumer = new DefaultKafkaConsumerFactory<>(props,
+                new StringDeserializer(), new StringDeserializer()).createConsumer()) {
+            List<TopicPartition> partitions = consumer.partitionsFor(TOPIC).stream()
+                    .map(info -> new TopicPartition(TOPIC, info.partition()))
+                    .toList();
+            return consumer.endOffsets(partitions).values().stream().mapToLong(Long::longValue).sum();
+        }
+    }
+
+    private static OutboxEvent pending(int orderId) {
+        return OutboxEvent.builder()
+                .aggregateId(String.valueOf(orderId))
+                .aggregateType("Order")
+                .eventType("INVENTORY_RESERVED")
+                .payload("{\"orderId\":" + orderId + "}")
+                .status(OutboxStatus.PENDING)
+                .retryCount(0)
+                .createdAt(Instant.now())
+                .build();
+    }
+}
@@ -0,0 +1,140 @@
+package com.pizzaflow.inventory.scheduler;
+
+import com.pizzaflow.inventory.config.OutboxProperties;
+import com.pizzaflow.inventory.domain.OutboxEvent;
+import com.pizzaflow.inventory.domain.OutboxStatus;
+import com.pizzaflow.inventory.repository.OutboxEventRepository;
+import com.pizzaflow.inventory.support.PostgresTestSupport;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Relay against a real outbox table: bulk status write-back per outcome and
+ * disjoint leases between concurrently draining relays.
+ */
+class OutboxEventSchedulerTest extends PostgresTestSupport {
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @BeforeEach
+    void cleanOutbox() {
+        outboxEventRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void acknowledgedEventsArePublishedAndRejectedOnesFailed() {
+        OutboxEvent reserved = outboxEventRepository.save(pending("1", "INVENTORY_RESERVED"));
+        OutboxEvent unavailable = outboxEventRepository.save(pending("2", "INVENTORY_UNAVAILABLE"));
+
+        KafkaTemplate<String, Object> kafka = kafka(topic -> topic.equals("inventory.unavailable")
+                ? CompletableFuture.failedFuture(new IllegalStateException("broker down"))
+                : CompletableFuture.completedFuture(null));
+
+        relay(kafka).drainPendingEvents();
+
+        OutboxEvent published = outboxEventRepository.findById(reserved.getId()).orElseThrow();
+        assertThat(published.getStatus()).isEqualTo(OutboxStatus.PUBLISHED);
+        assertThat(published.getProcessedAt()).isNotNull();
+        assertThat(published.getLockedBy()).isNull();
+
+        OutboxEvent failed = outboxEventRepository.findById(unavailable.getId()).orElseThrow();
+        assertThat(failed.getStatus()).isEqualTo(OutboxStatus.FAILED);
+        assertThat(failed.getLockedBy()).isNull();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void concurrentRelaysPublishEveryEventExactlyOnce() throws Exception {
+        int events = 500;
+        outboxEventRepository.saveAll(IntStream.range(0, events)
+                .mapToObj(i -> pending(String.valueOf(i), "INVENTORY_RESERVED"))
+                .toList());
+
+        Map<String, AtomicInteger> sends = new ConcurrentHashMap<>();
+        KafkaTemplate<String, Object> kafka = mock(KafkaTemplate.class);
+        when(kafka.send(anyString(), anyString(), any())).thenAnswer(invocation -> {
+            sends.computeIfAbsent(invocation.getArgument(1), key -> new AtomicInteger()).incrementAndGet();
+            return CompletableFuture.completedFuture(null);
+        });
+
+        int relays = 4;
+        ExecutorService pool = Executors.newFixedThreadPool(relays);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Object>> runs = IntStream.range(0, relays)
+                    .mapToObj(i -> {
+                        OutboxEventScheduler relay = relay(kafka);
+                        return pool.submit(() -> {
+                            start.await();
+                            relay.drainPendingEvents();
+                            return null;
+                        });
+                    })
+                    .toList();
+            start.countDown();
+            for (Future<Object> run : runs) {
+                run.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(sends).hasSize(events);
+        assertThat(sends.values()).allSatisfy(count -> assertThat(count.get()).isEqualTo(1));
+        assertThat(outboxEventRepository.findAll())
+                .allSatisfy(event -> assertThat(event.getStatus()).isEqualTo(OutboxStatus.PUBLISHED));
+    }
+
+    private OutboxEventScheduler relay(KafkaTemplate<String, Object> kafka) {
+        OutboxProperties properties = new OutboxProperties();
+        properties.setBatchSize(50);
+        return new OutboxEventScheduler(outboxEventRepository, kafka, properties,
+                new OutboxMetrics(new SimpleMeterRegistry()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static KafkaTemplate<String, Object> kafka(
+            Function<String, CompletableFuture<SendResult<String, Object>>> sendByTopic) {
+        KafkaTemplate<String, Object> kafka = mock(KafkaTemplate.class);
+        when(kafka.send(anyString(), anyString(), any()))
+                .thenAnswer(invocation -> sendByTopic.apply(invocation.getArgument(0)));
+        return kafka;
+    }
+
+    private static OutboxEvent pending(String aggregateId, String eventType) {
+        return OutboxEvent.builder()
+                .aggregateId(aggregateId)
+                .aggregateType("Order")
+                .eventType(eventType)
+                .payload("{\"orderId\":" + aggregateId + "}")
+                .status(OutboxStatus.PENDING)
+                .retryCount(0)
+                .createdAt(Instant.now())
+                .build();
+    }
+}
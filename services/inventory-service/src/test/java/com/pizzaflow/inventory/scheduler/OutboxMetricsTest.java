@@ -0,0 +1,43 @@
+package com.pizzaflow.inventory.scheduler;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OutboxMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final OutboxMetrics metrics = new OutboxMetrics(registry);
+
+    @Test
+    void reusesOneMeterPerTagValue() {
+        Instant now = Instant.now();
+        for (int i = 0; i < 3; i++) {
+            metrics.eventPublished("inventory.reserved", now.minus(Duration.ofSeconds(2)), now);
+        }
+        metrics.eventPublished("inventory.expired", null, now);
+
+        assertThat(registry.get("outbox.events.published").tag("topic", "inventory.reserved").counter().count())
+                .isEqualTo(3);
+        assertThat(registry.get("outbox.events.published").counters()).hasSize(2);
+        assertThat(registry.get("outbox.publish.lag").timer().count()).isEqualTo(3);
+    }
+
+    @Test
+    void separatesOutcomes() {
+        metrics.ack("inventory.reserved", 1_000_000, true);
+        metrics.ack("inventory.reserved", 2_000_000, false);
+        metrics.retry(1, true);
+        metrics.retry(1, false);
+        metrics.retry(1, false);
+
+        assertThat(registry.get("outbox.ack.latency").tag("outcome", "ack").timer().count()).isEqualTo(1);
+        assertThat(registry.get("outbox.ack.latency").tag("outcome", "error").timer().count()).isEqualTo(1);
+        assertThat(registry.get("outbox.retries").tag("attempt", "1").tag("outcome", "failed").counter().count())
+                .isEqualTo(2);
+    }
+}
@@ -0,0 +1,78 @@
+package com.pizzaflow.inventory.service;
+
+import com.pizzaflow.inventory.support.InventoryServiceTestSupport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * order.created and payment.completed are consumed in parallel, so the
+ * payment may be handled before the order's stock is reserved. A paid order
+ * must never end up with expiring reservations and a declined one must not
+ * keep its stock reserved, whichever event comes first.
+ */
+class InventoryServicePaymentOrderTest extends InventoryServiceTestSupport {
+
+    @BeforeEach
+    void stockDough() {
+        insertItem("DOUGH", 100);
+    }
+
+    @Test
+    void paymentBeforeReservationKeepsStockFromExpiring() {
+        tx.executeWithoutResult(status -> inventoryService.holdReservationsForPaidOrder(1L));
+        tx.executeWithoutResult(status -> inventoryService.reserveStockForOrder(1L, Map.of("DOUGH", 2)));
+
+        assertThat(expiringReservations(1L)).isZero();
+        assertThat(reservations(1L)).isEqualTo(1);
+    }
+
+    @Test
+    void paymentBeforeBatchReservationKeepsStockFromExpiring() {
+        tx.executeWithoutResult(status -> inventoryService.holdReservationsForPaidOrder(2L));
+        tx.executeWithoutResult(status -> inventoryService.reserveStockForOrders(
+                Map.of(2L, Map.of("DOUGH", 2), 3L, Map.of("DOUGH", 1))));
+
+        assertThat(expiringReservations(2L)).isZero();
+        assertThat(reservations(2L)).isEqualTo(1);
+        // The unpaid order of the same batch still expires
+        assertThat(expiringReservations(3L)).isEqualTo(1);
+    }
+
+    @Test
+    void paymentAfterReservationClearsExpiry() {
+        tx.executeWithoutResult(status -> inventoryService.reserveStockForOrder(4L, Map.of("DOUGH", 2)));
+        assertThat(expiringReservations(4L)).isEqualTo(1);
+
+        tx.executeWithoutResult(status -> inventoryService.holdReservationsForPaidOrder(4L));
+
+        assertThat(expiringReservations(4L)).isZero();
+    }
+
+    @Test
+    void paymentFailureBeforeReservationReservesNothing() {
+        int released = tx.execute(status -> inventoryService.releaseStockForOrders(List.of(5L)));
+        tx.executeWithoutResult(status -> inventoryService.reserveStockForOrder(5L, Map.of("DOUGH", 2)));
+        tx.executeWithoutResult(status -> inventoryService.reserveStockForOrders(
+                Map.of(6L, Map.of("DOUGH", 3))));
+        tx.executeWithoutResult(status -> inventoryService.releaseStockForOrders(List.of(6L)));
+
+        assertThat(released).isZero();
+        assertThat(reservations(5L)).isZero();
+        assertThat(reservedQuantity("DOUGH")).isZero();
+    }
+
+    private int reservations(Long orderId) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM stock_reservation WHERE order_id = ? " +
+                "AND status = 'RESERVED'", Integer.class, orderId);
+    }
+
+    private int expiringReservations(Long orderId) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM stock_reservation WHERE order_id = ? " +
+                "AND expires_at IS NOT NULL", Integer.class, orderId);
+    }
+}
@@ -0,0 +1,52 @@
+package com.pizzaflow.inventory.service;
+
+import com.pizzaflow.inventory.support.InventoryServiceTestSupport;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Releasing and committing an order's reservations with set-based statements,
+ * for plain and sharded items.
+ */
+class InventoryServiceSettlementTest extends InventoryServiceTestSupport {
+
+    @Test
+    void releaseGivesReservedStockBack() {
+        insertItem("DOUGH", 10);
+        tx.executeWithoutResult(status -> inventoryService.reserveStockForOrder(1L, Map.of("DOUGH", 4)));
+
+        tx.executeWithoutResult(status -> inventoryService.releaseStockForOrder(1L));
+
+        assertThat(reservedQuantity("DOUGH")).isZero();
+        assertThat(reservationStatus(1L)).isEqualTo("RELEASED");
+    }
+
+    @Test
+    void commitTakesReservedStockOutOfInventory() {
+        insertItem("DOUGH", 10);
+        long cheeseId = insertItem("CHEESE", 40);
+        shardedStockRepository.createShards(cheeseId, 4);
+        tx.executeWithoutResult(status -> inventoryService.reserveStockForOrder(2L,
+                Map.of("DOUGH", 4, "CHEESE", 3)));
+
+        tx.executeWithoutResult(status -> inventoryService.commitStockForOrder(2L));
+        // A second delivery.completed must not take the stock out twice
+        tx.executeWithoutResult(status -> inventoryService.commitStockForOrder(2L));
+
+        assertThat(jdbcTemplate.queryForObject("SELECT quantity FROM inventory_item WHERE product_id = 'DOUGH'",
+                Integer.class)).isEqualTo(6);
+        assertThat(reservedQuantity("DOUGH")).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT sum(quantity) || '/' || sum(reserved_quantity) " +
+                "FROM inventory_item_shard WHERE inventory_item_id = ?", String.class, cheeseId)).isEqualTo("37/0");
+        assertThat(jdbcTemplate.queryForList("SELECT DISTINCT status FROM stock_reservation WHERE order_id = 2",
+                String.class)).containsExactly("CONFIRMED");
+    }
+
+    private String reservationStatus(Long orderId) {
+        return jdbcTemplate.queryForObject("SELECT status FROM stock_reservation WHERE order_id = ?",
+                String.class, orderId);
+    }
+}
@@ -0,0 +1,134 @@
+package com.pizzaflow.inventory.service;
+
+import com.pizzaflow.inventory.support.InventoryServiceTestSupport;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Timed reservation runs against a real Postgres. The measured throughput is
+ * logged; assertions only cover correctness, the numbers depend on the machine.
+ * The connection pool is as large as the number of reservers so they all reach
+ * the database at once instead of queueing for a connection.
+ */
+@TestPropertySource(properties = "spring.datasource.hikari.maximum-pool-size=64")
+class ReservationThroughputTest extends InventoryServiceTestSupport {
+
+    private static final Logger log = LoggerFactory.getLogger(ReservationThroughputTest.class);
+
+    private static final int RESERVERS = 64;
+    private static final int ORDERS_PER_RESERVER = 20;
+
+    private final AtomicLong orderIds = new AtomicLong();
+
+    @Test
+    void sixtyFourReserversOnOneSkuNeverRetryOrFail() throws Exception {
+        insertItem("DOUGH", 100_000);
+
+        Run run = reserveConcurrently("DOUGH");
+
+        int orders = RESERVERS * ORDERS_PER_RESERVER;
+        assertThat(run.reserved()).isEqualTo(orders);
+        assertThat(reservedQuantity("DOUGH")).isEqualTo(orders);
+    }
+
+    @Test
+    void shardedItemAgainstSingleRowUnderContention() throws Exception {
+        insertItem("DOUGH", 100_000);
+        long cheeseId = insertItem("CHEESE", 100_000);
+        shardedStockRepository.createShards(cheeseId, 8);
+
+        Run singleRow = reserveConcurrently("DOUGH");
+        Run sharded = reserveConcurrently("CHEESE");
+        log.info("Sharded (8 shards) vs single row: {} vs {} orders/s ({}x)",
+                Math.round(sharded.ordersPerSecond()), Math.round(singleRow.ordersPerSecond()),
+                String.format("%.2f", sharded.ordersPerSecond() / singleRow.ordersPerSecond()));
+
+        int orders = RESERVERS * ORDERS_PER_RESERVER;
+        assertThat(singleRow.reserved()).isEqualTo(orders);
+        assertThat(sharded.reserved()).isEqualTo(orders);
+        assertThat(jdbcTemplate.queryForObject("SELECT sum(reserved_quantity) FROM inventory_item_shard " +
+                "WHERE inventory_item_id = ?", Integer.class, cheeseId)).isEqualTo(orders);
+    }
+
+    @Test
+    void batchReservationThroughputAtBatchSizes1And50And500() {
+        insertItem("DOUGH", 100_000);
+        insertItem("CHEESE", 100_000);
+        int orders = 1000;
+
+        for (int batchSize : new int[]{1, 50, 500}) {
+            int reserved = 0;
+            long started = System.nanoTime();
+            for (int i = 0; i < orders; i += batchSize) {
+                Map<Long, Map<String, Integer>> batch = new LinkedHashMap<>();
+                for (int j = 0; j < batchSize; j++) {
+                    batch.put(orderIds.incrementAndGet(), Map.of("DOUGH", 1, "CHEESE", 2));
+                }
+                reserved += tx.execute(status -> inventoryService.reserveStockForOrders(batch)).size();
+            }
+            long elapsedNanos = System.nanoTime() - started;
+            log.info("Batch size {}: {} orders in {} ms, {} orders/s", batchSize, orders,
+                    TimeUnit.NANOSECONDS.toMillis(elapsedNanos), Math.round(orders * 1_000_000_000.0 / elapsedNanos));
+
+            assertThat(reserved).isEqualTo(orders);
+        }
+        assertThat(reservedQuantity("DOUGH")).isEqualTo(3 * orders);
+        assertThat(reservedQuantity("CHEESE")).isEqualTo(6 * orders);
+    }
+
+    /**
+     * Lets RESERVERS threads reserve one unit of the product per order, each in
+     * its own transaction, and logs orders/s.
+     */
+    private Run reserveConcurrently(String productId) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(RESERVERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < RESERVERS; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    int reserved = 0;
+                    for (int j = 0; j < ORDERS_PER_RESERVER; j++) {
+                        Long orderId = orderIds.incrementAndGet();
+                        if (tx.execute(status -> inventoryService.reserveStockForOrder(orderId, Map.of(productId, 1)))) {
+                            reserved++;
+                        }
+                    }
+                    return reserved;
+                }));
+            }
+            long started = System.nanoTime();
+            start.countDown();
+            int reserved = 0;
+            for (Future<Integer> result : results) {
+                reserved += result.get(120, TimeUnit.SECONDS);
+            }
+            long elapsedNanos = System.nanoTime() - started;
+            double ordersPerSecond = RESERVERS * ORDERS_PER_RESERVER * 1_000_000_000.0 / elapsedNanos;
+            log.info("{} reservers, {} orders on {}: {} ms, {} orders/s", RESERVERS, RESERVERS * ORDERS_PER_RESERVER,
+                    productId, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), Math.round(ordersPerSecond));
+            return new Run(reserved, ordersPerSecond);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private record Run(int reserved, double ordersPerSecond) {
+    }
+}
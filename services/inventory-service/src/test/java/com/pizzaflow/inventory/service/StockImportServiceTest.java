@@ -0,0 +1,144 @@
+package com.pizzaflow.inventory.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pizzaflow.inventory.availability.AvailabilitySnapshot;
+import com.pizzaflow.inventory.dto.StockImportResponse;
+import com.pizzaflow.inventory.repository.ShardedStockRepository;
+import com.pizzaflow.inventory.repository.StockImportRepository;
+import com.pizzaflow.inventory.support.PostgresTestSupport;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+/**
+ * COPY-based stock import against a real Postgres.
+ */
+@Import({StockImportRepository.class, ShardedStockRepository.class})
+class StockImportServiceTest extends PostgresTestSupport {
+
+    private static final MediaType CSV = MediaType.parseMediaType(StockImportService.TEXT_CSV_VALUE);
+
+    @Autowired
+    private StockImportRepository stockImportRepository;
+
+    @Autowired
+    private ShardedStockRepository shardedStockRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private StockImportService stockImportService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        jdbcTemplate.execute("TRUNCATE inventory_item, inventory_item_shard, stock_reservation, recipe_line CASCADE");
+        stockImportService = new StockImportService(stockImportRepository, mock(ObjectProvider.class),
+                mock(AvailabilitySnapshot.class), new ObjectMapper(),
+                Validation.buildDefaultValidatorFactory().getValidator());
+    }
+
+    @Test
+    void csvInsertsAndUpdatesWithLastLineWinning() {
+        insertItem("DOUGH", 10, 0);
+
+        StockImportResponse response = importStock(CSV, """
+                product_id,product_name,quantity,unit
+                DOUGH,Pizza Dough,50,kg
+                CHEESE,Mozzarella,20,kg
+                DOUGH,Pizza Dough,60,kg
+                """);
+
+        assertThat(response.getRowsRead()).isEqualTo(3);
+        assertThat(response.getInserted()).isEqualTo(1);
+        assertThat(response.getUpdated()).isEqualTo(1);
+        assertThat(response.getSkipped()).isZero();
+        assertThat(response.getRejected()).isZero();
+        assertThat(quantity("DOUGH")).isEqualTo(60);
+        assertThat(quantity("CHEESE")).isEqualTo(20);
+    }
+
+    @Test
+    void quantityBelowReservedStockIsRejectedAndShardedItemsSkipped() {
+        insertItem("DOUGH", 10, 8);
+        long cheese = insertItem("CHEESE", 100, 0);
+        shardedStockRepository.createShards(cheese, 4);
+
+        StockImportResponse response = importStock(CSV, """
+                product_id,product_name,quantity,unit
+                DOUGH,Pizza Dough,5,kg
+                CHEESE,Mozzarella,500,kg
+                BASIL,Basil,3,kg
+                """);
+
+        assertThat(response.getInserted()).isEqualTo(1);
+        assertThat(response.getUpdated()).isZero();
+        assertThat(response.getRejected()).isEqualTo(1);
+        assertThat(response.getRejectedProductIds()).containsExactly("DOUGH");
+        assertThat(response.getSkipped()).isEqualTo(1);
+        assertThat(quantity("DOUGH")).isEqualTo(10);
+        assertThat(quantity("CHEESE")).isEqualTo(100);
+    }
+
+    @Test
+    void ndjsonRowsAreValidatedLikeApiRequests() {
+        assertThatThrownBy(() -> importStock(MediaType.APPLICATION_NDJSON, """
+                {"productId":"DOUGH","productName":"Pizza Dough","quantity":5,"unit":"kg"}
+                {"productId":"CHEESE","productName":"Mozzarella","unit":"kg"}
+                """))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid stock row 2: Quantity is required");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM inventory_item", Long.class)).isZero();
+    }
+
+    @Test
+    void blankCsvFieldsFailTheImport() {
+        assertThatThrownBy(() -> importStock(CSV, """
+                product_id,product_name,quantity,unit
+                DOUGH,"",5,kg
+                """)).isInstanceOf(RuntimeException.class);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM inventory_item", Long.class)).isZero();
+    }
+
+    @Test
+    void csvWithReorderedHeaderFailsTheImport() {
+        assertThatThrownBy(() -> importStock(CSV, """
+                product_id,product_name,unit,quantity
+                DOUGH,Pizza Dough,kg,5
+                """)).isInstanceOf(RuntimeException.class);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM inventory_item", Long.class)).isZero();
+    }
+
+    private StockImportResponse importStock(MediaType contentType, String body) {
+        return new TransactionTemplate(transactionManager).execute(status -> stockImportService.importStock(
+                contentType, new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    private long insertItem(String productId, int quantity, int reserved) {
+        return jdbcTemplate.queryForObject("INSERT INTO inventory_item (product_id, product_name, quantity, " +
+                        "reserved_quantity, unit) VALUES (?, ?, ?, ?, 'kg') RETURNING id",
+                Long.class, productId, productId, quantity, reserved);
+    }
+
+    private int quantity(String productId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT quantity FROM inventory_item WHERE product_id = ?", Integer.class, productId);
+    }
+}
@@ -0,0 +1,108 @@
+package com.pizzaflow.inventory.support;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pizzaflow.inventory.availability.AvailabilitySnapshot;
+import com.pizzaflow.inventory.bom.RecipeBook;
+import com.pizzaflow.inventory.config.DedupeProperties;
+import com.pizzaflow.inventory.config.OutboxProperties;
+import com.pizzaflow.inventory.config.ReservationProperties;
+import com.pizzaflow.inventory.dedupe.ProcessedEventStore;
+import com.pizzaflow.inventory.expiry.ReservationExpiryTracker;
+import com.pizzaflow.inventory.repository.InventoryItemRepository;
+import com.pizzaflow.inventory.repository.OutboxEventRepository;
+import com.pizzaflow.inventory.repository.ProcessedEventRepository;
+import com.pizzaflow.inventory.repository.ShardedStockRepository;
+import com.pizzaflow.inventory.repository.StockJdbcRepository;
+import com.pizzaflow.inventory.repository.StockLedgerRepository;
+import com.pizzaflow.inventory.repository.StockReservationRepository;
+import com.pizzaflow.inventory.scheduler.OutboxMetrics;
+import com.pizzaflow.inventory.service.InventoryService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Base of {@link InventoryService} tests against a real Postgres. The service
+ * is wired by hand with the real repositories and processed_event store; the
+ * in-memory ledger is absent, so stock is reserved in the database, and
+ * recipes are not expanded. The service is not proxied: tests open the
+ * transactions themselves through {@link #tx}. Starts from empty stock,
+ * reservation, processed_event and outbox tables.
+ */
+@Import({StockJdbcRepository.class, ShardedStockRepository.class, ProcessedEventRepository.class})
+public abstract class InventoryServiceTestSupport extends PostgresTestSupport {
+
+    @Autowired
+    private InventoryItemRepository inventoryItemRepository;
+
+    @Autowired
+    private StockReservationRepository stockReservationRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private StockJdbcRepository stockJdbcRepository;
+
+    @Autowired
+    protected ShardedStockRepository shardedStockRepository;
+
+    @Autowired
+    private ProcessedEventRepository processedEventRepository;
+
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    protected InventoryService inventoryService;
+    protected TransactionTemplate tx;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUpInventoryService() {
+        jdbcTemplate.execute("TRUNCATE inventory_item, inventory_item_shard, stock_reservation, processed_event, " +
+                "outbox_event CASCADE");
+
+        RecipeBook recipeBook = mock(RecipeBook.class);
+        when(recipeBook.expand(anyMap())).thenAnswer(invocation ->
+                new ArrayList<>(invocation.<Map<String, Integer>>getArgument(0).entrySet()));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ProcessedEventStore processedEventStore =
+                new ProcessedEventStore(processedEventRepository, new DedupeProperties(), meterRegistry);
+        // Loads the Bloom filter, as @PostConstruct does in the application
+        processedEventStore.purge();
+
+        inventoryService = new InventoryService(inventoryItemRepository, stockReservationRepository,
+                stockJdbcRepository, mock(StockLedgerRepository.class), shardedStockRepository,
+                mock(ObjectProvider.class), mock(ReservationExpiryTracker.class), mock(AvailabilitySnapshot.class),
+                recipeBook, processedEventStore, new OutboxMetrics(meterRegistry), outboxEventRepository,
+                new ObjectMapper(), jdbcTemplate, new OutboxProperties(), new ReservationProperties());
+        tx = new TransactionTemplate(transactionManager);
+    }
+
+    protected long insertItem(String productId, int quantity) {
+        jdbcTemplate.update("INSERT INTO inventory_item (product_id, product_name, quantity, reserved_quantity, unit) " +
+                "VALUES (?, ?, ?, 0, 'kg')", productId, productId, quantity);
+        return jdbcTemplate.queryForObject("SELECT id FROM inventory_item WHERE product_id = ?",
+                Long.class, productId);
+    }
+
+    protected int reservedQuantity(String productId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT reserved_quantity FROM inventory_item WHERE product_id = ?", Integer.class, productId);
+    }
+}
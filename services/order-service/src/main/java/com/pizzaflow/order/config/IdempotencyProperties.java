@@ -0,0 +1,41 @@
+package com.pizzaflow.order.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of Idempotency-Key handling for order creation ({@code order.idempotency.*}).
+ */
+@Data
+@ConfigurationProperties(prefix = "order.idempotency")
+public class IdempotencyProperties {
+
+    /**
+     * How long a completed request is remembered in Redis.
+     */
+    private Duration ttl = Duration.ofHours(24);
+
+    /**
+     * Maximum number of completed requests kept in the local cache in front of Redis.
+     */
+    private int localMaxEntries = 10_000;
+
+    /**
+     * How long a completed request stays in the local cache.
+     */
+    private Duration localTtl = Duration.ofMinutes(10);
+
+    /**
+     * How long a request in progress holds its key in Redis. Must exceed the
+     * longest order creation; a crashed instance's key is free again after it.
+     */
+    private Duration inFlightLease = Duration.ofSeconds(30);
+
+    /**
+     * How long a duplicate waits for the first request's result before it is
+     * answered with 409 Conflict.
+     */
+    private Duration waitTimeout = Duration.ofSeconds(10);
+}
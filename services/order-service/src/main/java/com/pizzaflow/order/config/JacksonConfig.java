@@ -0,0 +1,20 @@
+package com.pizzaflow.order.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JacksonConfig {
+
+    /**
+     * Replaces reflective getter and constructor calls of the response records
+     * with generated lambdas; Spring Boot registers the module with the shared
+     * ObjectMapper used by MVC, the read model and the outbox.
+     */
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+}
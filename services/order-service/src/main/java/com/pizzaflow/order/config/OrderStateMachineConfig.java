@@ -2,12 +2,17 @@ package com.pizzaflow.order.config;
 
 import com.pizzaflow.order.domain.OrderEvent;
 import com.pizzaflow.order.domain.OrderStatus;
+import com.pizzaflow.order.domain.OrderTransitionTable;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.statemachine.StateMachine;
+import org.springframework.statemachine.config.StateMachineFactory;
 import org.springframework.statemachine.config.EnableStateMachineFactory;
 import org.springframework.statemachine.config.EnumStateMachineConfigurerAdapter;
 import org.springframework.statemachine.config.builders.StateMachineStateConfigurer;
 import org.springframework.statemachine.config.builders.StateMachineTransitionConfigurer;
+import org.springframework.statemachine.transition.Transition;
 
 import java.util.EnumSet;
 
@@ -54,4 +59,28 @@ public class OrderStateMachineConfig extends EnumStateMachineConfigurerAdapter<O
                 .and()
                 .withExternal().source(OrderStatus.PAID).target(OrderStatus.CANCELLED).event(OrderEvent.CANCEL);
     }
+
+    /**
+     * Compiles the transitions configured above into a lookup table once at
+     * startup, so applying an event does not build and reset a state machine.
+     * The configuration stays the single definition of the order lifecycle;
+     * transitions with guards or actions cannot be expressed by the table and
+     * fail startup instead of being silently dropped.
+     */
+    @Bean
+    public OrderTransitionTable orderTransitionTable(StateMachineFactory<OrderStatus, OrderEvent> stateMachineFactory) {
+        StateMachine<OrderStatus, OrderEvent> sm = stateMachineFactory.getStateMachine();
+        OrderTransitionTable.Builder table = OrderTransitionTable.builder();
+        for (Transition<OrderStatus, OrderEvent> transition : sm.getTransitions()) {
+            if (transition.getTrigger() == null || transition.getGuard() != null
+                    || (transition.getActions() != null && !transition.getActions().isEmpty())) {
+                throw new IllegalStateException("Order transition from " + transition.getSource().getId()
+                        + " needs an event trigger and no guards or actions to be compiled into the table");
+            }
+            table.transition(transition.getSource().getId(), transition.getTrigger().getEvent(),
+                    transition.getTarget().getId());
+        }
+        log.info("Compiled {} order state transitions", sm.getTransitions().size());
+        return table.build();
+    }
 }
@@ -0,0 +1,75 @@
+package com.pizzaflow.order.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Tuning knobs for the order outbox relay ({@code order.outbox.*}).
+ */
+@Data
+@ConfigurationProperties(prefix = "order.outbox")
+public class OutboxProperties {
+
+    /**
+     * Delay between two relay runs, in milliseconds.
+     */
+    private long pollIntervalMs = 5000;
+
+    /**
+     * Number of events claimed and published as one batch.
+     */
+    private int batchSize = 100;
+
+    /**
+     * Upper bound of batches drained in a single relay run.
+     */
+    private int maxBatchesPerRun = 20;
+
+    /**
+     * How long a batch waits for broker acknowledgements before the
+     * unacknowledged events are treated as failed.
+     */
+    private long ackTimeoutMs = 10000;
+
+    /**
+     * How long a claimed batch stays leased to one relay instance. Must be
+     * longer than ackTimeoutMs.
+     */
+    private long leaseMs = 30000;
+
+    /**
+     * Retry attempts of a failed event before it is parked as DEAD.
+     */
+    private int maxRetries = 3;
+
+    /**
+     * Wake the relay through Postgres LISTEN/NOTIFY as soon as an outbox row is
+     * committed. The scheduled poll then only acts as a safety net.
+     */
+    private boolean notifyEnabled = true;
+
+    /**
+     * Postgres channel used for the outbox wake-up notifications.
+     */
+    private String notifyChannel = "order_outbox";
+
+    private Retention retention = new Retention();
+
+    /**
+     * Cleanup of published rows in outbox_event.
+     */
+    @Data
+    public static class Retention {
+
+        /**
+         * PUBLISHED events processed longer ago than this many days are deleted.
+         */
+        private int retentionDays = 7;
+
+        /**
+         * Rows removed per DELETE statement, so a large backlog never holds
+         * one long transaction open against the relay.
+         */
+        private int deleteBatchSize = 5000;
+    }
+}
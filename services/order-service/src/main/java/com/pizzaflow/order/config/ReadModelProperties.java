@@ -0,0 +1,25 @@
+package com.pizzaflow.order.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the Redis order read model ({@code order.read-model.*}).
+ */
+@Data
+@ConfigurationProperties(prefix = "order.read-model")
+public class ReadModelProperties {
+
+    /**
+     * Serve order reads from Redis. When disabled every read goes to Postgres.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Expiry of order entries. Refreshed on every write;
+     * bounds how long a missed update can stay visible.
+     */
+    private Duration ttl = Duration.ofHours(24);
+}
@@ -0,0 +1,26 @@
+package com.pizzaflow.order.config;
+
+import com.pizzaflow.order.stream.OrderStatusStream;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+@Configuration
+public class RedisConfig {
+
+    /**
+     * Subscribes the order status stream to the status channel, so status
+     * changes reach SSE clients connected to any instance.
+     */
+    @Bean
+    public RedisMessageListenerContainer orderStatusListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                      OrderStatusStream orderStatusStream,
+                                                                      StreamProperties streamProperties) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(orderStatusStream, new ChannelTopic(streamProperties.getChannel()));
+        return container;
+    }
+}
@@ -0,0 +1,12 @@
+package com.pizzaflow.order.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties({OutboxProperties.class, ReadModelProperties.class, StreamProperties.class,
+        IdempotencyProperties.class})
+public class SchedulingConfig {
+}
@@ -0,0 +1,30 @@
+package com.pizzaflow.order.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the order status event stream ({@code order.stream.*}).
+ */
+@Data
+@ConfigurationProperties(prefix = "order.stream")
+public class StreamProperties {
+
+    /**
+     * Interval of the keep-alive comments sent to idle subscribers, so proxies
+     * do not cut the connection and dead clients are detected.
+     */
+    private Duration heartbeatInterval = Duration.ofSeconds(15);
+
+    /**
+     * Lifetime of one stream connection; clients reconnect with Last-Event-ID.
+     */
+    private Duration emitterTimeout = Duration.ofMinutes(30);
+
+    /**
+     * Redis pub/sub channel that carries status changes to every instance.
+     */
+    private String channel = "order-status";
+}
@@ -0,0 +1,30 @@
+package com.pizzaflow.order.consumer;
+
+import com.pizzaflow.order.service.OrderService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class InventoryEventListener {
+
+    private final OrderService orderService;
+
+    /**
+     * inventory-service released the stock of an order that was not paid in
+     * time. The record key is the order ID; the payload is not needed.
+     */
+    @KafkaListener(topics = "inventory.expired", groupId = "order-service")
+    public void handleReservationExpired(ConsumerRecord<String, String> record) {
+        log.info("Received Inventory Expired event for Order ID: {}", record.key());
+        try {
+            orderService.processReservationExpired(Long.valueOf(record.key()));
+        } catch (Exception e) {
+            log.error("Error processing reservation expiry for order {}", record.key(), e);
+        }
+    }
+}
@@ -1,15 +1,20 @@
 package com.pizzaflow.order.controller;
 
-import com.pizzaflow.order.domain.Order;
+import com.pizzaflow.order.dto.BatchCreateOrderRequest;
+import com.pizzaflow.order.dto.BatchCreateOrderResponse;
 import com.pizzaflow.order.dto.CreateOrderRequest;
+import com.pizzaflow.order.dto.OrderPage;
+import com.pizzaflow.order.dto.OrderView;
+import com.pizzaflow.order.idempotency.IdempotencyStore;
 import com.pizzaflow.order.service.OrderService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.net.URI;
-import java.util.List;
 
 @RestController
 @RequestMapping("/api/v1/orders")
@@ -17,21 +22,62 @@ import java.util.List;
 public class OrderController {
 
     private final OrderService orderService;
+    private final IdempotencyStore idempotencyStore;
 
+    /**
+     * Creates an order. With an Idempotency-Key header, retries of the same
+     * request return the order created first (marked Idempotent-Replayed)
+     * instead of creating another one.
+     */
     @PostMapping
-    public ResponseEntity<Order> createOrder(@Valid @RequestBody CreateOrderRequest request) {
-        Order createdOrder = orderService.createOrder(request);
-        return ResponseEntity.created(URI.create("/api/v1/orders/" + createdOrder.getId()))
-                .body(createdOrder);
+    public ResponseEntity<OrderView> createOrder(@Valid @RequestBody CreateOrderRequest request,
+                                                 @RequestHeader(name = "Idempotency-Key", required = false)
+                                                 String idempotencyKey) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            OrderView createdOrder = orderService.createOrder(request);
+            return ResponseEntity.created(URI.create("/api/v1/orders/" + createdOrder.id()))
+                    .body(createdOrder);
+        }
+
+        IdempotencyStore.Outcome outcome = idempotencyStore.execute(request.getCustomerId(), idempotencyKey, request,
+                () -> orderService.createOrder(request));
+        return ResponseEntity.created(URI.create("/api/v1/orders/" + outcome.order().id()))
+                .header("Idempotent-Replayed", String.valueOf(outcome.replayed()))
+                .body(outcome.order());
+    }
+
+    /**
+     * Creates up to 500 orders in one transaction. Invalid orders are reported
+     * per index in the response instead of failing the batch.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<BatchCreateOrderResponse> createOrders(@Valid @RequestBody BatchCreateOrderRequest request) {
+        return ResponseEntity.ok(orderService.createOrders(request.getOrders()));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Order> getOrder(@PathVariable Long id) {
-        return ResponseEntity.ok(orderService.getOrder(id));
+    public ResponseEntity<OrderView> getOrder(@PathVariable Long id) {
+        return ResponseEntity.ok(orderService.getOrderView(id));
     }
     
+    /**
+     * Streams the order's status changes as Server-Sent Events, starting with
+     * the current status. The stream ends once the order is finished.
+     */
+    @GetMapping(path = "/{id}/status-stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamOrderStatus(@PathVariable Long id,
+                                        @RequestHeader(name = "Last-Event-ID", required = false) String lastEventId) {
+        return orderService.streamStatus(id, lastEventId);
+    }
+
+    /**
+     * Customer order history, newest first, in pages of at most 100 orders.
+     * Follow nextCursor of the response to read further back.
+     */
     @GetMapping("/customer/{customerId}")
-    public ResponseEntity<List<Order>> getCustomerOrders(@PathVariable Long customerId) {
-        return ResponseEntity.ok(orderService.getOrdersByCustomer(customerId));
+    public ResponseEntity<OrderPage> getCustomerOrders(@PathVariable Long customerId,
+                                                       @RequestParam(required = false) String cursor,
+                                                       @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(orderService.getCustomerOrders(customerId, cursor, limit));
     }
 }
@@ -0,0 +1,59 @@
+package com.pizzaflow.order.domain;
+
+/**
+ * Immutable (status, event) -> status lookup compiled from the order state
+ * machine configuration. A transition is a pair of array reads, so applying an
+ * event allocates nothing; {@code null} means the event is not accepted in that
+ * status and the order keeps it, just like the state machine ignores the event.
+ */
+public final class OrderTransitionTable {
+
+    private static final int EVENT_COUNT = OrderEvent.values().length;
+
+    private final OrderStatus[] targets;
+
+    private OrderTransitionTable(OrderStatus[] targets) {
+        this.targets = targets;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return the status the order moves to, or null if the event is not accepted
+     */
+    public OrderStatus next(OrderStatus current, OrderEvent event) {
+        return targets[current.ordinal() * EVENT_COUNT + event.ordinal()];
+    }
+
+    public boolean accepts(OrderStatus current, OrderEvent event) {
+        return next(current, event) != null;
+    }
+
+    public static final class Builder {
+
+        private final OrderStatus[] targets = new OrderStatus[OrderStatus.values().length * EVENT_COUNT];
+
+        private Builder() {
+        }
+
+        /**
+         * Adds a transition. A second target for the same (source, event) pair is
+         * rejected: the table cannot express guards choosing between them.
+         */
+        public Builder transition(OrderStatus source, OrderEvent event, OrderStatus target) {
+            int slot = source.ordinal() * EVENT_COUNT + event.ordinal();
+            if (targets[slot] != null && targets[slot] != target) {
+                throw new IllegalStateException("Ambiguous transition " + source + " --" + event + "--> "
+                        + targets[slot] + " / " + target);
+            }
+            targets[slot] = target;
+            return this;
+        }
+
+        public OrderTransitionTable build() {
+            return new OrderTransitionTable(targets.clone());
+        }
+    }
+}
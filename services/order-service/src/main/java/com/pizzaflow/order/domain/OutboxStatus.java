@@ -0,0 +1,9 @@
+package com.pizzaflow.order.domain;
+
+public enum OutboxStatus {
+    PENDING,
+    PUBLISHED,
+    FAILED,
+    // Retries exhausted; left for manual inspection
+    DEAD
+}
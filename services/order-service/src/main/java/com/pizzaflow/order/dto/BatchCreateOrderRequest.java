@@ -0,0 +1,19 @@
+package com.pizzaflow.order.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Orders of a bulk create call. The individual orders are deliberately not
+ * cascaded with {@code @Valid}: they are validated one by one so an invalid
+ * order is reported in its result instead of rejecting the whole batch.
+ */
+@Data
+public class BatchCreateOrderRequest {
+    @NotEmpty(message = "Orders cannot be empty")
+    @Size(max = 500, message = "At most 500 orders per batch")
+    private List<CreateOrderRequest> orders;
+}
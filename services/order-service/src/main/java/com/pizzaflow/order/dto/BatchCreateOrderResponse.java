@@ -0,0 +1,16 @@
+package com.pizzaflow.order.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchCreateOrderResponse {
+    private int created;
+    private int rejected;
+    private List<BatchOrderResult> results;
+}
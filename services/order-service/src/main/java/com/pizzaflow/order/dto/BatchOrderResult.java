@@ -0,0 +1,30 @@
+package com.pizzaflow.order.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Outcome of one order of a bulk create call, matched to the request by index.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchOrderResult {
+    private int index;
+    private Status status;
+    private Long orderId;
+    // Field -> message for REJECTED orders
+    private Map<String, String> errors;
+
+    public enum Status {
+        CREATED,
+        REJECTED
+    }
+}
@@ -1,17 +1,43 @@
 package com.pizzaflow.order.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.AssertTrue;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
+
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Objects;
 
 @Data
 public class CreateOrderRequest {
+    // orders.total_amount is DECIMAL(10, 2)
+    private static final BigDecimal MAX_TOTAL = new BigDecimal("99999999.99");
+
     @NotNull(message = "Customer ID is required")
     private Long customerId;
     
     @NotEmpty(message = "Order items cannot be empty")
     @Valid
-    private List<OrderItemDto> items;
+    private List<@NotNull(message = "Order item cannot be null") OrderItemDto> items;
+
+    /**
+     * Keeps the order total within the orders.total_amount column. Incomplete
+     * items are left to their own constraints.
+     */
+    @JsonIgnore
+    @AssertTrue(message = "Order total must be at most 99999999.99")
+    public boolean isTotalWithinLimit() {
+        if (items == null) {
+            return true;
+        }
+        BigDecimal total = items.stream()
+                .filter(Objects::nonNull)
+                .filter(item -> item.getQuantity() != null && item.getUnitPrice() != null)
+                .map(item -> item.getUnitPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return total.compareTo(MAX_TOTAL) <= 0;
+    }
 }
@@ -1,19 +1,28 @@
 package com.pizzaflow.order.dto;
 
 import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import lombok.Data;
 import java.math.BigDecimal;
 
 @Data
 public class OrderItemDto {
     @NotBlank(message = "Product ID is required")
+    @Size(max = 50, message = "Product ID must be at most 50 characters")
     private String productId;
     
+    @NotNull(message = "Quantity is required")
     @Min(value = 1, message = "Quantity must be at least 1")
+    @Max(value = 1000, message = "Quantity must be at most 1000")
     private Integer quantity;
     
+    @NotNull(message = "Unit price is required")
     @DecimalMin(value = "0.01", message = "Unit price must be greater than 0")
+    @Digits(integer = 8, fraction = 2, message = "Unit price must have at most 8 integer and 2 fraction digits")
     private BigDecimal unitPrice;
 }
@@ -0,0 +1,19 @@
+package com.pizzaflow.order.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of a customer's order history, newest first. Pass nextCursor as
+ * {@code cursor} to get the following page; it is null on the last page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderPage {
+    private List<OrderView> orders;
+    private String nextCursor;
+}
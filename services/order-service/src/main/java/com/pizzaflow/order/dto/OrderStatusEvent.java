@@ -0,0 +1,11 @@
+package com.pizzaflow.order.dto;
+
+import com.pizzaflow.order.domain.OrderStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Status change pushed to order status stream subscribers.
+ */
+public record OrderStatusEvent(Long orderId, OrderStatus status, LocalDateTime changedAt) {
+}
@@ -0,0 +1,61 @@
+package com.pizzaflow.order.dto;
+
+import com.pizzaflow.order.domain.Order;
+import com.pizzaflow.order.domain.OrderStatus;
+import com.pizzaflow.order.repository.OrderItemRow;
+import com.pizzaflow.order.repository.OrderRow;
+import lombok.Builder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Denormalized order with its items and current status, as served by the
+ * order endpoints and stored in the Redis read model.
+ */
+@Builder
+public record OrderView(
+        Long id,
+        Long customerId,
+        OrderStatus status,
+        BigDecimal totalAmount,
+        List<Item> items,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt) {
+
+    public static OrderView from(Order order) {
+        return OrderView.builder()
+                .id(order.getId())
+                .customerId(order.getCustomerId())
+                .status(order.getStatus())
+                .totalAmount(order.getTotalAmount())
+                .items(order.getItems().stream()
+                        .map(item -> new Item(item.getId(), item.getProductId(), item.getQuantity(),
+                                item.getUnitPrice()))
+                        .toList())
+                .createdAt(order.getCreatedAt())
+                .updatedAt(order.getUpdatedAt())
+                .build();
+    }
+
+    /**
+     * Assembles the view from column projections, without loading entities.
+     */
+    public static OrderView from(OrderRow order, List<OrderItemRow> items) {
+        return OrderView.builder()
+                .id(order.id())
+                .customerId(order.customerId())
+                .status(order.status())
+                .totalAmount(order.totalAmount())
+                .items(items.stream()
+                        .map(item -> new Item(item.id(), item.productId(), item.quantity(), item.unitPrice()))
+                        .toList())
+                .createdAt(order.createdAt())
+                .updatedAt(order.updatedAt())
+                .build();
+    }
+
+    public record Item(Long id, String productId, Integer quantity, BigDecimal unitPrice) {
+    }
+}
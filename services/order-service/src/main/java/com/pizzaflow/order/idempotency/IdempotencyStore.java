@@ -0,0 +1,241 @@
+package com.pizzaflow.order.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.pizzaflow.order.config.IdempotencyProperties;
+import com.pizzaflow.order.dto.OrderView;
+import com.pizzaflow.order.exception.IdempotencyConflictException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs order creations at most once per Idempotency-Key.
+ *
+ * Lookups go through three layers: requests in flight on this instance (a
+ * duplicate joins the first request's future instead of running again), a
+ * bounded LRU of recently completed results, and Redis, which is shared by
+ * all instances. In Redis a key first holds a short pending lease taken with
+ * SET NX and, once the order is committed, the result for the configured TTL.
+ * A duplicate arriving at another instance while the lease is held polls for
+ * the result.
+ *
+ * Keys are scoped to the customer, so two customers picking the same key never
+ * see each other's orders. Every key is bound to a fingerprint of its request
+ * body; reusing a key for a different request is rejected. If Redis is unavailable the local layers
+ * still deduplicate retries that reach the same instance.
+ */
+@Component
+@Slf4j
+public class IdempotencyStore {
+
+    private static final String PENDING_PREFIX = "pending:";
+    private static final long POLL_INTERVAL_MS = 50;
+
+    private final StringRedisTemplate redisTemplate;
+    private final IdempotencyProperties properties;
+    private final ObjectWriter requestWriter;
+    private final ObjectReader resultReader;
+    private final ObjectWriter resultWriter;
+
+    private final Map<String, CompletableFuture<Completed>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Completed> completed;
+
+    public IdempotencyStore(StringRedisTemplate redisTemplate, IdempotencyProperties properties,
+                            ObjectMapper objectMapper) {
+        this.redisTemplate = redisTemplate;
+        this.properties = properties;
+        this.requestWriter = objectMapper.writer();
+        this.resultReader = objectMapper.readerFor(Completed.class);
+        this.resultWriter = objectMapper.writerFor(Completed.class);
+        int maxEntries = properties.getLocalMaxEntries();
+        this.completed = Collections.synchronizedMap(new LinkedHashMap<String, Completed>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Completed> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    /**
+     * Returns the result of the first request with this key, running the
+     * action only if there was none.
+     *
+     * @param customerId owner of the key; the same key of another customer is unrelated
+     * @param request    the request body, compared with the one the key was first used for
+     */
+    public Outcome execute(Long customerId, String key, Object request, Supplier<OrderView> action) {
+        String fingerprint = fingerprint(request);
+        String scopedKey = customerId + ":" + key;
+
+        Completed local = completed.get(scopedKey);
+        if (local != null && local.expiresAt() > System.currentTimeMillis()) {
+            return replay(key, local, fingerprint);
+        }
+
+        CompletableFuture<Completed> flight = new CompletableFuture<>();
+        CompletableFuture<Completed> running = inFlight.putIfAbsent(scopedKey, flight);
+        if (running != null) {
+            return replay(key, await(key, running), fingerprint);
+        }
+
+        try {
+            Outcome outcome = executeOnce(key, scopedKey, fingerprint, action);
+            flight.complete(new Completed(fingerprint, outcome.order(), localExpiry()));
+            return outcome;
+        } catch (RuntimeException e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(scopedKey, flight);
+        }
+    }
+
+    private Outcome executeOnce(String key, String scopedKey, String fingerprint, Supplier<OrderView> action) {
+        String redisKey = redisKey(scopedKey);
+        Boolean acquired = null;
+        try {
+            acquired = redisTemplate.opsForValue()
+                    .setIfAbsent(redisKey, PENDING_PREFIX + fingerprint, properties.getInFlightLease());
+        } catch (Exception e) {
+            log.warn("Idempotency store unavailable, only deduplicating locally: {}", e.getMessage());
+        }
+
+        if (Boolean.FALSE.equals(acquired)) {
+            Completed stored = awaitStored(key, redisKey);
+            completed.put(scopedKey, new Completed(stored.fingerprint(), stored.order(), localExpiry()));
+            return replay(key, stored, fingerprint);
+        }
+
+        OrderView order;
+        try {
+            order = action.get();
+        } catch (RuntimeException e) {
+            // Nothing was committed, let a retry run again
+            if (acquired != null) {
+                deleteQuietly(redisKey);
+            }
+            throw e;
+        }
+
+        Completed result = new Completed(fingerprint, order, localExpiry());
+        completed.put(scopedKey, result);
+        if (acquired != null) {
+            try {
+                redisTemplate.opsForValue().set(redisKey, resultWriter.writeValueAsString(result), properties.getTtl());
+            } catch (Exception e) {
+                log.error("Failed to store result of idempotency key {}; a retry on another instance may "
+                        + "create a duplicate: {}", key, e.getMessage());
+            }
+        }
+        return new Outcome(order, false);
+    }
+
+    /**
+     * Waits for the instance holding the pending lease to store its result.
+     */
+    private Completed awaitStored(String key, String redisKey) {
+        long deadline = System.nanoTime() + properties.getWaitTimeout().toNanos();
+        while (System.nanoTime() < deadline) {
+            String value = redisTemplate.opsForValue().get(redisKey);
+            if (value == null) {
+                // The first request failed or its lease expired
+                throw new IdempotencyConflictException(
+                        "The request with Idempotency-Key " + key + " did not complete, retry it");
+            }
+            if (!value.startsWith(PENDING_PREFIX)) {
+                try {
+                    return resultReader.readValue(value);
+                } catch (JsonProcessingException e) {
+                    throw new IllegalStateException("Unreadable result for Idempotency-Key " + key, e);
+                }
+            }
+            sleep();
+        }
+        throw new IdempotencyConflictException("A request with Idempotency-Key " + key + " is still in progress");
+    }
+
+    private Completed await(String key, CompletableFuture<Completed> running) {
+        try {
+            return running.get(properties.getWaitTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new IdempotencyConflictException("A request with Idempotency-Key " + key + " is still in progress");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IdempotencyConflictException conflict) {
+                throw conflict;
+            }
+            throw new IdempotencyConflictException(
+                    "The request with Idempotency-Key " + key + " did not complete, retry it");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyConflictException("Interrupted while waiting for Idempotency-Key " + key);
+        }
+    }
+
+    private Outcome replay(String key, Completed result, String fingerprint) {
+        if (!result.fingerprint().equals(fingerprint)) {
+            throw new IdempotencyConflictException(
+                    "Idempotency-Key " + key + " was already used for a different request");
+        }
+        return new Outcome(result.order(), true);
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(requestWriter.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Failed to fingerprint request", e);
+        }
+    }
+
+    private long localExpiry() {
+        return System.currentTimeMillis() + properties.getLocalTtl().toMillis();
+    }
+
+    private void deleteQuietly(String redisKey) {
+        try {
+            redisTemplate.delete(redisKey);
+        } catch (Exception e) {
+            log.warn("Failed to release idempotency key {}, it expires with its lease: {}", redisKey, e.getMessage());
+        }
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(POLL_INTERVAL_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyConflictException("Interrupted while waiting for an idempotent request");
+        }
+    }
+
+    private static String redisKey(String scopedKey) {
+        return "order:idempotency:" + scopedKey;
+    }
+
+    /**
+     * @param replayed true if the order was created by an earlier request
+     */
+    public record Outcome(OrderView order, boolean replayed) {
+    }
+
+    // expiresAt only matters for the local cache; Redis expires entries itself
+    record Completed(String fingerprint, OrderView order, long expiresAt) {
+    }
+}
@@ -1,22 +1,62 @@
 package com.pizzaflow.order.producer;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.pizzaflow.common.event.OrderCreatedEvent;
+import com.pizzaflow.order.config.OutboxProperties;
 import com.pizzaflow.order.domain.Order;
+import com.pizzaflow.order.domain.OutboxEvent;
+import com.pizzaflow.order.domain.OutboxStatus;
+import com.pizzaflow.order.repository.OutboxEventRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+
+/**
+ * Records order events in the outbox table as part of the caller's
+ * transaction. The events reach Kafka through the relay once the transaction
+ * commits; a rolled back order never produces an event.
+ */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class OrderEventPublisher {
 
-    private final KafkaTemplate<String, Object> kafkaTemplate;
-    private static final String TOPIC_ORDER_CREATED = "order.created";
+    public static final String ORDER_CREATED = "ORDER_CREATED";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxProperties outboxProperties;
+    private final ObjectMapper objectMapper;
+    private final JdbcTemplate jdbcTemplate;
 
+    @Transactional(propagation = Propagation.MANDATORY)
     public void publishOrderCreatedEvent(Order order) {
-        OrderCreatedEvent event = OrderCreatedEvent.builder()
+        log.info("Recording OrderCreatedEvent for Order ID: {}", order.getId());
+        saveToOutbox(List.of(toOutboxEvent(String.valueOf(order.getId()), ORDER_CREATED, toOrderCreatedEvent(order))));
+    }
+
+    /**
+     * Records the events of a bulk create with one batched insert and a single
+     * relay wake-up.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publishOrderCreatedEvents(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return;
+        }
+        log.info("Recording {} OrderCreatedEvents", orders.size());
+        saveToOutbox(orders.stream()
+                .map(order -> toOutboxEvent(String.valueOf(order.getId()), ORDER_CREATED, toOrderCreatedEvent(order)))
+                .toList());
+    }
+
+    private OrderCreatedEvent toOrderCreatedEvent(Order order) {
+        return OrderCreatedEvent.builder()
                 .orderId(order.getId())
                 .customerId(order.getCustomerId())
                 .totalAmount(order.getTotalAmount())
@@ -29,8 +69,31 @@ public class OrderEventPublisher {
                                 .build())
                         .toList())
                 .build();
+    }
+
+    private OutboxEvent toOutboxEvent(String aggregateId, String eventType, Object event) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            // Fail the order transaction rather than lose the event
+            throw new IllegalStateException("Failed to serialize " + eventType + " for order " + aggregateId, e);
+        }
+        return OutboxEvent.builder()
+                .aggregateId(aggregateId)
+                .aggregateType("ORDER")
+                .eventType(eventType)
+                .payload(payload)
+                .status(OutboxStatus.PENDING)
+                .build();
+    }
+
+    private void saveToOutbox(List<OutboxEvent> events) {
+        outboxEventRepository.saveAll(events);
 
-        log.info("Publishing OrderCreatedEvent for Order ID: {}", order.getId());
-        kafkaTemplate.send(TOPIC_ORDER_CREATED, String.valueOf(order.getId()), event);
+        // Postgres delivers the notification only once this transaction commits
+        if (outboxProperties.isNotifyEnabled()) {
+            jdbcTemplate.execute("NOTIFY " + outboxProperties.getNotifyChannel());
+        }
     }
 }
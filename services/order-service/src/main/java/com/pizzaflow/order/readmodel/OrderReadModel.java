@@ -0,0 +1,181 @@
+package com.pizzaflow.order.readmodel;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.pizzaflow.order.config.ReadModelProperties;
+import com.pizzaflow.order.dto.OrderView;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Denormalized order read model in Redis. Every order is stored as JSON under
+ * {@code order:{id}}, so a single order is one GET and a page of a customer's
+ * history is one MGET, regardless of the number of items.
+ *
+ * Writes of order-service go through after commit and always win. Misses are
+ * filled from Postgres with set-if-absent semantics, so a fill based on an
+ * older database read never overwrites a newer write-through.
+ * Redis errors are logged and reads fall back to Postgres.
+ */
+@Component
+@Slf4j
+public class OrderReadModel {
+
+    // KEYS: order keys; ARGV: ttl seconds, then the JSON per key
+    private static final RedisScript<Long> WRITE_THROUGH = RedisScript.of("""
+            local ttl = tonumber(ARGV[1])
+            for i = 1, #KEYS do
+              redis.call('SET', KEYS[i], ARGV[i + 1], 'EX', ttl)
+            end
+            return 1
+            """, Long.class);
+
+    // KEYS: order keys; ARGV: ttl seconds, then the JSON per key
+    private static final RedisScript<Long> FILL = RedisScript.of("""
+            local ttl = tonumber(ARGV[1])
+            for i = 1, #KEYS do
+              redis.call('SET', KEYS[i], ARGV[i + 1], 'NX', 'EX', ttl)
+            end
+            return 1
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final ReadModelProperties properties;
+    // Bound once, so serializers are not looked up per call
+    private final ObjectReader reader;
+    private final ObjectWriter writer;
+
+    public OrderReadModel(StringRedisTemplate redisTemplate, ObjectMapper objectMapper,
+                          ReadModelProperties properties) {
+        this.redisTemplate = redisTemplate;
+        this.properties = properties;
+        this.reader = objectMapper.readerFor(OrderView.class);
+        this.writer = objectMapper.writerFor(OrderView.class);
+    }
+
+    public Optional<OrderView> find(Long orderId) {
+        if (!properties.isEnabled()) {
+            return Optional.empty();
+        }
+        try {
+            String json = redisTemplate.opsForValue().get(orderKey(orderId));
+            return json != null ? Optional.of(read(json)) : Optional.empty();
+        } catch (Exception e) {
+            log.warn("Order read model lookup failed for order {}: {}", orderId, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Looks up several orders with one MGET.
+     *
+     * @return the orders found, by ID; missing ones are absent
+     */
+    public Map<Long, OrderView> findAll(List<Long> orderIds) {
+        if (!properties.isEnabled() || orderIds.isEmpty()) {
+            return Map.of();
+        }
+        try {
+            List<String> values = redisTemplate.opsForValue()
+                    .multiGet(orderIds.stream().map(OrderReadModel::orderKey).toList());
+            Map<Long, OrderView> orders = new HashMap<>(orderIds.size() * 2);
+            for (int i = 0; i < orderIds.size(); i++) {
+                String json = values != null ? values.get(i) : null;
+                if (json != null) {
+                    orders.put(orderIds.get(i), read(json));
+                }
+            }
+            return orders;
+        } catch (Exception e) {
+            log.warn("Order read model lookup failed for {} orders: {}", orderIds.size(), e.getMessage());
+            return Map.of();
+        }
+    }
+
+    /**
+     * Writes the orders through once the caller's transaction commits; a
+     * rolled back change never becomes visible.
+     */
+    public void putAfterCommit(List<OrderView> orders) {
+        if (!properties.isEnabled() || orders.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            put(orders);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                put(orders);
+            }
+        });
+    }
+
+    /**
+     * Caches orders loaded from Postgres unless a newer write got there first.
+     */
+    public void fill(List<OrderView> orders) {
+        if (!properties.isEnabled() || orders.isEmpty()) {
+            return;
+        }
+        try {
+            execute(FILL, orders);
+        } catch (Exception e) {
+            log.warn("Failed to fill order read model for {} orders: {}", orders.size(), e.getMessage());
+        }
+    }
+
+    private void put(List<OrderView> orders) {
+        try {
+            execute(WRITE_THROUGH, orders);
+        } catch (Exception e) {
+            // Do not leave outdated entries behind; the next read rebuilds them
+            log.warn("Failed to update order read model for {} orders, evicting: {}", orders.size(), e.getMessage());
+            evict(orders.stream().map(order -> orderKey(order.id())).toList());
+        }
+    }
+
+    private void execute(RedisScript<Long> script, List<OrderView> orders) throws JsonProcessingException {
+        List<String> keys = new ArrayList<>(orders.size());
+        List<String> args = new ArrayList<>(orders.size() + 1);
+        args.add(String.valueOf(properties.getTtl().toSeconds()));
+        for (OrderView order : orders) {
+            keys.add(orderKey(order.id()));
+            args.add(write(order));
+        }
+        redisTemplate.execute(script, keys, args.toArray());
+    }
+
+    private void evict(List<String> keys) {
+        try {
+            redisTemplate.delete(keys);
+        } catch (Exception e) {
+            log.error("Failed to evict order read model entries {}, they expire after {}", keys, properties.getTtl());
+        }
+    }
+
+    private OrderView read(String json) throws JsonProcessingException {
+        return reader.readValue(json);
+    }
+
+    private String write(OrderView order) throws JsonProcessingException {
+        return writer.writeValueAsString(order);
+    }
+
+    private static String orderKey(Long orderId) {
+        return "order:" + orderId;
+    }
+}
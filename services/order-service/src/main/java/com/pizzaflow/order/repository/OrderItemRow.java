@@ -0,0 +1,9 @@
+package com.pizzaflow.order.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Column projection of an order_items row.
+ */
+public record OrderItemRow(Long orderId, Long id, String productId, Integer quantity, BigDecimal unitPrice) {
+}
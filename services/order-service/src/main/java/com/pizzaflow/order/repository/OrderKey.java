@@ -0,0 +1,12 @@
+package com.pizzaflow.order.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Keyset position of an order in its customer's history.
+ */
+public interface OrderKey {
+    Long getId();
+
+    LocalDateTime getCreatedAt();
+}
@@ -2,11 +2,50 @@ package com.pizzaflow.order.repository;
 
 import com.pizzaflow.order.domain.Order;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
-    List<Order> findByCustomerId(Long customerId);
+
+    /**
+     * Reads the columns of the order endpoints only; no entities, proxies or
+     * dirty-checking snapshots are created.
+     */
+    @Query("SELECT new com.pizzaflow.order.repository.OrderRow(o.id, o.customerId, o.status, o.totalAmount, " +
+            "o.createdAt, o.updatedAt) FROM Order o WHERE o.id IN :ids")
+    List<OrderRow> findRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Items of several orders in one query.
+     */
+    @Query("SELECT new com.pizzaflow.order.repository.OrderItemRow(i.order.id, i.id, i.productId, i.quantity, " +
+            "i.unitPrice) FROM OrderItem i WHERE i.order.id IN :orderIds ORDER BY i.id")
+    List<OrderItemRow> findItemRowsByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
+
+    /**
+     * First page of a customer's history, newest first. Only reads
+     * idx_orders_customer_created.
+     */
+    @Query(value = "SELECT id, created_at AS createdAt FROM orders WHERE customer_id = :customerId " +
+            "ORDER BY created_at DESC, id DESC LIMIT :limit", nativeQuery = true)
+    List<OrderKey> findFirstKeys(@Param("customerId") Long customerId, @Param("limit") int limit);
+
+    /**
+     * Page of a customer's history after the given keyset position. The row
+     * comparison keeps the scan on idx_orders_customer_created, so deep pages
+     * cost the same as the first one.
+     */
+    @Query(value = "SELECT id, created_at AS createdAt FROM orders WHERE customer_id = :customerId " +
+            "AND (created_at, id) < (:createdAt, :id) " +
+            "ORDER BY created_at DESC, id DESC LIMIT :limit", nativeQuery = true)
+    List<OrderKey> findKeysAfter(@Param("customerId") Long customerId,
+                                 @Param("createdAt") LocalDateTime createdAt,
+                                 @Param("id") Long id,
+                                 @Param("limit") int limit);
 }
@@ -0,0 +1,13 @@
+package com.pizzaflow.order.repository;
+
+import com.pizzaflow.order.domain.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Column projection of an orders row, read without creating a managed entity.
+ */
+public record OrderRow(Long id, Long customerId, OrderStatus status, BigDecimal totalAmount,
+                       LocalDateTime createdAt, LocalDateTime updatedAt) {
+}
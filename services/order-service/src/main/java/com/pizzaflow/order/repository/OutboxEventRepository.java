@@ -0,0 +1,97 @@
+package com.pizzaflow.order.repository;
+
+import com.pizzaflow.order.domain.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Leases the oldest unclaimed PENDING events to the given relay instance.
+     * Rows locked by a concurrent claim are skipped, so every replica gets a
+     * disjoint batch. The status literal keeps the partial index usable.
+     */
+    @Transactional
+    @Query(value = "WITH claimed AS (UPDATE outbox_event SET locked_by = :owner, " +
+            "locked_until = LOCALTIMESTAMP + (:leaseMs * INTERVAL '1 millisecond') " +
+            "WHERE id IN (SELECT id FROM outbox_event " +
+            "WHERE status = 'PENDING' AND (locked_until IS NULL OR locked_until < LOCALTIMESTAMP) " +
+            "ORDER BY created_at LIMIT :limit FOR UPDATE SKIP LOCKED) " +
+            "RETURNING *) SELECT * FROM claimed ORDER BY created_at", nativeQuery = true)
+    List<OutboxEvent> claimPending(@Param("owner") String owner,
+                                   @Param("leaseMs") long leaseMs,
+                                   @Param("limit") int limit);
+
+    /**
+     * Leases the oldest unclaimed FAILED events. Events out of retry attempts
+     * are DEAD and never match.
+     */
+    @Transactional
+    @Query(value = "WITH claimed AS (UPDATE outbox_event SET locked_by = :owner, " +
+            "locked_until = LOCALTIMESTAMP + (:leaseMs * INTERVAL '1 millisecond') " +
+            "WHERE id IN (SELECT id FROM outbox_event " +
+            "WHERE status = 'FAILED' AND (locked_until IS NULL OR locked_until < LOCALTIMESTAMP) " +
+            "ORDER BY created_at LIMIT :limit FOR UPDATE SKIP LOCKED) " +
+            "RETURNING *) SELECT * FROM claimed ORDER BY created_at", nativeQuery = true)
+    List<OutboxEvent> claimFailed(@Param("owner") String owner,
+                                  @Param("leaseMs") long leaseMs,
+                                  @Param("limit") int limit);
+
+    /**
+     * Hands leased events back without touching their status.
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE OutboxEvent e SET e.lockedBy = NULL, e.lockedUntil = NULL " +
+            "WHERE e.id IN :ids AND e.lockedBy = :owner")
+    int releaseLease(@Param("ids") Collection<Long> ids, @Param("owner") String owner);
+
+    /**
+     * Marks a whole acknowledged batch as published with a single UPDATE statement.
+     * Only rows still leased by the caller are touched.
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE OutboxEvent e SET e.status = com.pizzaflow.order.domain.OutboxStatus.PUBLISHED, " +
+            "e.processedAt = :processedAt, e.lockedBy = NULL, e.lockedUntil = NULL " +
+            "WHERE e.id IN :ids AND e.lockedBy = :owner")
+    int markPublished(@Param("ids") Collection<Long> ids,
+                      @Param("processedAt") Instant processedAt,
+                      @Param("owner") String owner);
+
+    /**
+     * Records a failed publish attempt for a batch of events. Events that used
+     * up their last attempt are parked as DEAD, the rest become FAILED.
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE OutboxEvent e SET e.retryCount = e.retryCount + 1, e.lastAttemptAt = :attemptedAt, " +
+            "e.status = CASE WHEN e.retryCount + 1 > :maxRetries " +
+            "THEN com.pizzaflow.order.domain.OutboxStatus.DEAD " +
+            "ELSE com.pizzaflow.order.domain.OutboxStatus.FAILED END, " +
+            "e.lockedBy = NULL, e.lockedUntil = NULL " +
+            "WHERE e.id IN :ids AND e.lockedBy = :owner")
+    int recordFailedAttempt(@Param("ids") Collection<Long> ids,
+                            @Param("attemptedAt") Instant attemptedAt,
+                            @Param("maxRetries") int maxRetries,
+                            @Param("owner") String owner);
+
+    /**
+     * Deletes up to {@code limit} PUBLISHED events processed before the cutoff.
+     * PENDING, FAILED and DEAD events are never touched.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM outbox_event WHERE id IN (SELECT id FROM outbox_event " +
+            "WHERE status = 'PUBLISHED' AND processed_at < :cutoff LIMIT :limit)", nativeQuery = true)
+    int deletePublishedBefore(@Param("cutoff") Instant cutoff, @Param("limit") int limit);
+}
@@ -0,0 +1,196 @@
+package com.pizzaflow.order.scheduler;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pizzaflow.common.event.OrderCreatedEvent;
+import com.pizzaflow.order.config.OutboxProperties;
+import com.pizzaflow.order.domain.OutboxEvent;
+import com.pizzaflow.order.producer.OrderEventPublisher;
+import com.pizzaflow.order.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Relay of the order outbox. Claims committed events in batches, hands the
+ * whole batch to the producer, waits for the broker acknowledgements together
+ * and writes the outcome back with one bulk UPDATE per outcome. Kafka is never
+ * called while an order transaction is open.
+ * Batches are leased with SELECT ... FOR UPDATE SKIP LOCKED, so several
+ * replicas drain disjoint parts of the outbox without publishing duplicates.
+ * The claim/ack/write-back flow mirrors the inventory-service relay on purpose;
+ * payload mapping and topics are service specific, so it is not shared through
+ * common-libs.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxEventScheduler {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final OutboxProperties outboxProperties;
+    private final ObjectMapper objectMapper;
+
+    // Lease owner of this relay instance
+    private final String relayId = UUID.randomUUID().toString();
+
+    /**
+     * Publishes pending events and retries failed ones that are due. With
+     * LISTEN/NOTIFY enabled this poll is only a safety net; pending events are
+     * normally drained by {@link OutboxNotificationListener} right after commit.
+     */
+    @Scheduled(fixedDelayString = "${order.outbox.poll-interval-ms:5000}")
+    public void publishPendingEvents() {
+        drainPendingEvents();
+        retryFailedEvents();
+    }
+
+    /**
+     * Claims and publishes pending events batch by batch (up to
+     * maxBatchesPerRun batches). Safe to call concurrently, claimed batches
+     * never overlap.
+     */
+    public void drainPendingEvents() {
+        int batchSize = outboxProperties.getBatchSize();
+        int batches = 0;
+        List<OutboxEvent> pendingEvents;
+        do {
+            pendingEvents = outboxEventRepository.claimPending(relayId, outboxProperties.getLeaseMs(), batchSize);
+            if (pendingEvents.isEmpty()) {
+                break;
+            }
+
+            log.info("Publishing batch of {} pending outbox events", pendingEvents.size());
+            if (!publishEvents(pendingEvents)) {
+                break; // Broker is unhealthy, do not hammer it with the rest of the backlog
+            }
+            batches++;
+        } while (pendingEvents.size() == batchSize && batches < outboxProperties.getMaxBatchesPerRun());
+    }
+
+    /**
+     * Retries failed events whose backoff (5s, 30s, 120s) has elapsed; the
+     * others are handed back right away.
+     */
+    private void retryFailedEvents() {
+        List<OutboxEvent> failedEvents = outboxEventRepository.claimFailed(
+                relayId, outboxProperties.getLeaseMs(), outboxProperties.getBatchSize());
+        if (failedEvents.isEmpty()) {
+            return;
+        }
+
+        Instant now = Instant.now();
+        List<OutboxEvent> due = new ArrayList<>();
+        List<Long> notDue = new ArrayList<>();
+        for (OutboxEvent event : failedEvents) {
+            if (event.getLastAttemptAt() == null
+                    || !event.getLastAttemptAt().plus(backoff(event.getRetryCount())).isAfter(now)) {
+                due.add(event);
+            } else {
+                notDue.add(event.getId());
+            }
+        }
+
+        if (!notDue.isEmpty()) {
+            outboxEventRepository.releaseLease(notDue, relayId);
+        }
+        if (!due.isEmpty()) {
+            log.info("Retrying {} failed outbox events", due.size());
+            publishEvents(due);
+        }
+    }
+
+    private static Duration backoff(int retryCount) {
+        return switch (retryCount) {
+            case 0, 1 -> Duration.ofSeconds(5);
+            case 2 -> Duration.ofSeconds(30);
+            default -> Duration.ofSeconds(120);
+        };
+    }
+
+    /**
+     * Publishes a batch and writes the outcome back in bulk.
+     *
+     * @return true if every event in the batch was acknowledged by the broker
+     */
+    private boolean publishEvents(List<OutboxEvent> events) {
+        Map<Long, CompletableFuture<SendResult<String, Object>>> sends = new LinkedHashMap<>(events.size() * 2);
+        for (OutboxEvent event : events) {
+            try {
+                sends.put(event.getId(), kafkaTemplate.send(
+                        topicOf(event.getEventType()), event.getAggregateId(), toMessage(event)));
+            } catch (Exception e) {
+                sends.put(event.getId(), CompletableFuture.failedFuture(e));
+            }
+        }
+        kafkaTemplate.flush();
+
+        try {
+            CompletableFuture.allOf(sends.values().toArray(CompletableFuture[]::new))
+                    .get(outboxProperties.getAckTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            log.warn("Broker rejected part of the outbox batch: {}", e.getCause().getMessage());
+        } catch (TimeoutException e) {
+            log.warn("Timed out after {} ms waiting for outbox batch acknowledgements",
+                    outboxProperties.getAckTimeoutMs());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while waiting for outbox batch acknowledgements");
+        }
+
+        List<Long> published = new ArrayList<>(events.size());
+        List<Long> failed = new ArrayList<>();
+        sends.forEach((id, future) -> {
+            if (future.isDone() && !future.isCompletedExceptionally()) {
+                published.add(id);
+            } else {
+                failed.add(id);
+            }
+        });
+
+        Instant now = Instant.now();
+        if (!published.isEmpty()) {
+            outboxEventRepository.markPublished(published, now, relayId);
+            log.info("Published {} outbox events", published.size());
+        }
+        if (!failed.isEmpty()) {
+            outboxEventRepository.recordFailedAttempt(failed, now, outboxProperties.getMaxRetries(), relayId);
+            log.error("Failed to publish {} outbox events: {}", failed.size(), failed);
+        }
+        return failed.isEmpty();
+    }
+
+    /**
+     * Restores the typed event from its JSON payload, so consumers receive the
+     * same message and type header as with a direct send.
+     */
+    private Object toMessage(OutboxEvent event) throws JsonProcessingException {
+        return switch (event.getEventType()) {
+            case OrderEventPublisher.ORDER_CREATED -> objectMapper.readValue(event.getPayload(), OrderCreatedEvent.class);
+            default -> throw new IllegalArgumentException("Unknown outbox event type " + event.getEventType());
+        };
+    }
+
+    private String topicOf(String eventType) {
+        return switch (eventType) {
+            case OrderEventPublisher.ORDER_CREATED -> "order.created";
+            default -> "order.events";
+        };
+    }
+}
@@ -0,0 +1,43 @@
+package com.pizzaflow.order.scheduler;
+
+import com.pizzaflow.order.config.OutboxProperties;
+import com.pizzaflow.order.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Deletes PUBLISHED outbox events once they are older than the retention
+ * window. Unlike inventory-service, the order outbox_event table is not
+ * partitioned, so expired rows are removed in bounded batches, each in its own
+ * transaction, instead of dropping whole partitions.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxRetentionJob {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxProperties outboxProperties;
+
+    @Scheduled(cron = "${order.outbox.retention.cron:0 15 3 * * *}")
+    public void purgePublishedEvents() {
+        OutboxProperties.Retention retention = outboxProperties.getRetention();
+        Instant cutoff = Instant.now().minus(Duration.ofDays(retention.getRetentionDays()));
+
+        long total = 0;
+        int deleted;
+        do {
+            deleted = outboxEventRepository.deletePublishedBefore(cutoff, retention.getDeleteBatchSize());
+            total += deleted;
+        } while (deleted == retention.getDeleteBatchSize());
+
+        if (total > 0) {
+            log.info("Purged {} published outbox events processed before {}", total, cutoff);
+        }
+    }
+}
@@ -3,33 +3,120 @@ package com.pizzaflow.order.service;
 import com.pizzaflow.order.domain.Order;
 import com.pizzaflow.order.domain.OrderItem;
 import com.pizzaflow.order.domain.OrderStatus;
+import com.pizzaflow.order.domain.OrderTransitionTable;
+import com.pizzaflow.order.dto.BatchCreateOrderResponse;
+import com.pizzaflow.order.dto.BatchOrderResult;
 import com.pizzaflow.order.dto.CreateOrderRequest;
+import com.pizzaflow.order.dto.OrderPage;
+import com.pizzaflow.order.dto.OrderStatusEvent;
+import com.pizzaflow.order.dto.OrderView;
 import com.pizzaflow.order.exception.ResourceNotFoundException;
 import com.pizzaflow.order.domain.OrderEvent;
 import com.pizzaflow.order.producer.OrderEventPublisher;
+import com.pizzaflow.order.readmodel.OrderReadModel;
+import com.pizzaflow.order.repository.OrderItemRow;
+import com.pizzaflow.order.repository.OrderKey;
 import com.pizzaflow.order.repository.OrderRepository;
+import com.pizzaflow.order.repository.OrderRow;
+import com.pizzaflow.order.stream.OrderStatusStream;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
-import org.springframework.messaging.support.MessageBuilder;
-import org.springframework.statemachine.StateMachine;
-import org.springframework.statemachine.config.StateMachineFactory;
-import org.springframework.statemachine.support.DefaultStateMachineContext;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import reactor.core.publisher.Mono;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class OrderService {
 
     private final OrderRepository orderRepository;
     private final OrderEventPublisher orderEventPublisher;
-    private final StateMachineFactory<OrderStatus, OrderEvent> stateMachineFactory;
+    private final OrderTransitionTable orderTransitionTable;
+    private final Validator validator;
+    private final OrderReadModel orderReadModel;
+    private final OrderStatusStream orderStatusStream;
+
+    private static final int MAX_PAGE_SIZE = 100;
 
     @Transactional
-    public Order createOrder(CreateOrderRequest request) {
+    public OrderView createOrder(CreateOrderRequest request) {
+        Order savedOrder = orderRepository.save(buildOrder(request));
+
+        // Written to the outbox in this transaction, the relay publishes it after commit
+        orderEventPublisher.publishOrderCreatedEvent(savedOrder);
+        OrderView view = OrderView.from(savedOrder);
+        orderReadModel.putAfterCommit(List.of(view));
+
+        return view;
+    }
+
+    /**
+     * Creates many orders in one transaction. Every order is validated on its
+     * own and invalid ones are reported as REJECTED without affecting the rest.
+     * The valid orders, their items and their outbox events are flushed as JDBC
+     * batches, and the relay picks the events up as one producer batch.
+     */
+    @Transactional
+    public BatchCreateOrderResponse createOrders(List<CreateOrderRequest> requests) {
+        BatchOrderResult[] results = new BatchOrderResult[requests.size()];
+        List<Order> orders = new ArrayList<>(requests.size());
+        List<Integer> orderIndexes = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            Map<String, String> errors = validate(requests.get(i));
+            if (errors.isEmpty()) {
+                orders.add(buildOrder(requests.get(i)));
+                orderIndexes.add(i);
+            } else {
+                results[i] = BatchOrderResult.builder()
+                        .index(i)
+                        .status(BatchOrderResult.Status.REJECTED)
+                        .errors(errors)
+                        .build();
+            }
+        }
+
+        List<Order> savedOrders = orderRepository.saveAll(orders);
+        orderEventPublisher.publishOrderCreatedEvents(savedOrders);
+        orderReadModel.putAfterCommit(savedOrders.stream().map(OrderView::from).toList());
+
+        for (int i = 0; i < savedOrders.size(); i++) {
+            int index = orderIndexes.get(i);
+            results[index] = BatchOrderResult.builder()
+                    .index(index)
+                    .status(BatchOrderResult.Status.CREATED)
+                    .orderId(savedOrders.get(i).getId())
+                    .build();
+        }
+        return new BatchCreateOrderResponse(savedOrders.size(), requests.size() - savedOrders.size(),
+                Arrays.asList(results));
+    }
+
+    private Map<String, String> validate(CreateOrderRequest request) {
+        if (request == null) {
+            return Map.of("order", "Order cannot be null");
+        }
+        Map<String, String> errors = new LinkedHashMap<>();
+        for (ConstraintViolation<CreateOrderRequest> violation : validator.validate(request)) {
+            errors.putIfAbsent(violation.getPropertyPath().toString(), violation.getMessage());
+        }
+        return errors;
+    }
+
+    private Order buildOrder(CreateOrderRequest request) {
         Order order = Order.builder()
                 .customerId(request.getCustomerId())
                 .status(OrderStatus.PENDING)
@@ -46,13 +133,7 @@ public class OrderService {
 
         order.setItems(items);
         order.setTotalAmount(calculateTotal(items));
-
-        Order savedOrder = orderRepository.save(order);
-
-        // Publish Event
-        orderEventPublisher.publishOrderCreatedEvent(savedOrder);
-
-        return savedOrder;
+        return order;
     }
 
     @Transactional
@@ -67,33 +148,32 @@ public class OrderService {
         sendEvent(order, OrderEvent.PAYMENT_FAILURE);
     }
 
-    private void sendEvent(Order order, OrderEvent event) {
-        StateMachine<OrderStatus, OrderEvent> sm = build(order);
-
-        // Use reactive API instead of deprecated synchronous method
-        sm.sendEvent(Mono.just(MessageBuilder.withPayload(event)
-                        .setHeader("orderId", order.getId())
-                        .build()))
-                .blockLast(); // Block for transactional consistency
-
-        // For MVP: Manually sync state back to Entity (Simpler than Interceptors for
-        // now)
-        OrderStatus newState = sm.getState().getId();
-        if (newState != order.getStatus()) {
-            order.setStatus(newState);
-            orderRepository.save(order);
+    /**
+     * Cancels an order whose stock reservation expired. Only unpaid orders are
+     * cancelled: a payment that was handled here but had not reached
+     * inventory-service before the expiry leaves the order for manual review.
+     */
+    @Transactional
+    public void processReservationExpired(Long orderId) {
+        Order order = getOrder(orderId);
+        if (order.getStatus() != OrderStatus.PENDING) {
+            log.warn("Stock reservation of order {} expired in status {}, not cancelling",
+                    orderId, order.getStatus());
+            return;
         }
+        sendEvent(order, OrderEvent.CANCEL);
     }
 
-    private StateMachine<OrderStatus, OrderEvent> build(Order order) {
-        StateMachine<OrderStatus, OrderEvent> sm = stateMachineFactory.getStateMachine(order.getId().toString());
-        sm.stopReactively().block();
-        sm.getStateMachineAccessor()
-                .doWithAllRegions(sma -> sma.resetStateMachineReactively(
-                                new DefaultStateMachineContext<>(order.getStatus(), null, null, null))
-                        .block());
-        sm.startReactively().block();
-        return sm;
+    private void sendEvent(Order order, OrderEvent event) {
+        // Events the current status does not accept leave the order unchanged
+        OrderStatus newState = orderTransitionTable.next(order.getStatus(), event);
+        if (newState != null && newState != order.getStatus()) {
+            order.setStatus(newState);
+            // Flush now so the read model gets the audited updatedAt
+            orderRepository.saveAndFlush(order);
+            orderReadModel.putAfterCommit(List.of(OrderView.from(order)));
+            orderStatusStream.publishAfterCommit(new OrderStatusEvent(order.getId(), newState, order.getUpdatedAt()));
+        }
     }
 
     public Order getOrder(Long id) {
@@ -101,8 +181,93 @@ public class OrderService {
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + id));
     }
 
-    public List<Order> getOrdersByCustomer(Long customerId) {
-        return orderRepository.findByCustomerId(customerId);
+    /**
+     * Reads an order from the Redis read model, rebuilding the entry from
+     * Postgres on a miss. Not transactional: a cache hit must not borrow a
+     * database connection, and the two projection queries of a miss need no
+     * common transaction.
+     */
+    public OrderView getOrderView(Long id) {
+        return orderReadModel.find(id).orElseGet(() -> {
+            List<OrderView> loaded = loadViews(List.of(id));
+            if (loaded.isEmpty()) {
+                throw new ResourceNotFoundException("Order not found with id: " + id);
+            }
+            orderReadModel.fill(loaded);
+            return loaded.get(0);
+        });
+    }
+
+    /**
+     * Opens a Server-Sent Events stream of the order's status changes.
+     *
+     * @param lastEventId Last-Event-ID of a reconnecting client, may be null
+     */
+    public SseEmitter streamStatus(Long id, String lastEventId) {
+        OrderView order = getOrderView(id);
+        return orderStatusStream.subscribe(
+                new OrderStatusEvent(order.id(), order.status(), order.updatedAt()), lastEventId);
+    }
+
+    /**
+     * Reads one page of a customer's order history, newest first. The page is
+     * located through the (customer_id, created_at, id) index and its orders
+     * are taken from the read model with one MGET; misses are loaded from
+     * Postgres together with their items in one query. Cost and memory depend
+     * on the page size only, not on the length of the history.
+     *
+     * @param cursor nextCursor of the previous page, null for the first page
+     * @param limit  page size, clamped to 1..MAX_PAGE_SIZE
+     */
+    @Transactional(readOnly = true)
+    public OrderPage getCustomerOrders(Long customerId, String cursor, int limit) {
+        int pageSize = Math.clamp(limit, 1, MAX_PAGE_SIZE);
+        // One extra row tells whether there is a next page
+        List<OrderKey> keys;
+        if (cursor == null) {
+            keys = orderRepository.findFirstKeys(customerId, pageSize + 1);
+        } else {
+            OrderCursor position = OrderCursor.decode(cursor);
+            keys = orderRepository.findKeysAfter(customerId, position.createdAt(), position.id(), pageSize + 1);
+        }
+        boolean hasMore = keys.size() > pageSize;
+        if (hasMore) {
+            keys = keys.subList(0, pageSize);
+        }
+
+        List<Long> ids = keys.stream().map(OrderKey::getId).toList();
+        Map<Long, OrderView> orders = new HashMap<>(orderReadModel.findAll(ids));
+        List<Long> missing = ids.stream().filter(id -> !orders.containsKey(id)).toList();
+        if (!missing.isEmpty()) {
+            List<OrderView> loaded = loadViews(missing);
+            loaded.forEach(order -> orders.put(order.id(), order));
+            orderReadModel.fill(loaded);
+        }
+
+        // Keep the index order; an order deleted in between is simply skipped
+        List<OrderView> page = ids.stream().map(orders::get).filter(Objects::nonNull).toList();
+        String nextCursor = null;
+        if (hasMore) {
+            OrderKey last = keys.get(keys.size() - 1);
+            nextCursor = new OrderCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new OrderPage(page, nextCursor);
+    }
+
+    /**
+     * Loads orders through column projections: one query for the orders and
+     * one for all of their items.
+     */
+    private List<OrderView> loadViews(Collection<Long> ids) {
+        List<OrderRow> rows = orderRepository.findRowsByIdIn(ids);
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, List<OrderItemRow>> items = orderRepository.findItemRowsByOrderIdIn(ids).stream()
+                .collect(Collectors.groupingBy(OrderItemRow::orderId));
+        return rows.stream()
+                .map(row -> OrderView.from(row, items.getOrDefault(row.id(), List.of())))
+                .toList();
     }
 
     private BigDecimal calculateTotal(List<OrderItem> items) {
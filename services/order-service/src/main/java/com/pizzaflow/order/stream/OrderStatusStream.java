@@ -0,0 +1,245 @@
+package com.pizzaflow.order.stream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.pizzaflow.order.config.StreamProperties;
+import com.pizzaflow.order.domain.OrderStatus;
+import com.pizzaflow.order.dto.OrderStatusEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pushes order status changes to Server-Sent Events subscribers.
+ *
+ * Subscribers are SseEmitters on async servlet requests: an idle connection
+ * holds no thread, only its entry in a ConcurrentHashMap keyed by orderId.
+ * Committed status changes are published on a Redis channel so the instance
+ * holding the connection receives them, whichever instance processed the
+ * event; the Redis listener thread only hands the fan-out to virtual threads,
+ * so a slow client never delays the others. Sends to one subscriber are
+ * serialized with a ReentrantLock rather than synchronized, so a virtual
+ * thread blocked on a slow socket unmounts instead of pinning its carrier.
+ *
+ * The event id is the status name. Order statuses only move forward in
+ * declaration order, so a subscriber drops every event that is not newer than
+ * the last one it sent: the initial snapshot and fanned-out changes run on
+ * different virtual threads and may arrive in any order, but the client never
+ * sees its status go back, and a client reconnecting with Last-Event-ID only
+ * gets statuses it has not seen yet.
+ */
+@Component
+@Slf4j
+public class OrderStatusStream implements MessageListener {
+
+    private static final Set<OrderStatus> FINAL_STATUSES =
+            EnumSet.of(OrderStatus.DELIVERED, OrderStatus.COMPLETED, OrderStatus.CANCELLED);
+
+    private final StringRedisTemplate redisTemplate;
+    private final StreamProperties properties;
+    private final TaskScheduler taskScheduler;
+    private final ObjectReader reader;
+    private final ObjectWriter writer;
+
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private ScheduledFuture<?> heartbeats;
+
+    public OrderStatusStream(StringRedisTemplate redisTemplate, StreamProperties properties,
+                             TaskScheduler taskScheduler, ObjectMapper objectMapper) {
+        this.redisTemplate = redisTemplate;
+        this.properties = properties;
+        this.taskScheduler = taskScheduler;
+        this.reader = objectMapper.readerFor(OrderStatusEvent.class);
+        this.writer = objectMapper.writerFor(OrderStatusEvent.class);
+    }
+
+    /**
+     * Opens a stream for the order. The current status is sent right away
+     * unless the client already saw it (lastEventId); a finished order's
+     * stream is completed after that.
+     */
+    public SseEmitter subscribe(OrderStatusEvent current, String lastEventId) {
+        SseEmitter emitter = new SseEmitter(properties.getEmitterTimeout().toMillis());
+        Subscriber subscriber = new Subscriber(emitter, lastEventId);
+        Long orderId = current.orderId();
+
+        // Register before sending the current status, so no change committed in between is lost
+        subscribers.computeIfAbsent(orderId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        emitter.onCompletion(() -> unsubscribe(orderId, subscriber));
+        // End the response cleanly on timeout; the client reconnects with Last-Event-ID
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> unsubscribe(orderId, subscriber));
+
+        senders.execute(() -> deliver(subscriber, current));
+        return emitter;
+    }
+
+    /**
+     * Publishes the status change once the caller's transaction commits.
+     */
+    public void publishAfterCommit(OrderStatusEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(event);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publish(event);
+            }
+        });
+    }
+
+    /**
+     * Status change published by any instance, including this one.
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            fanOut(reader.readValue(message.getBody()));
+        } catch (IOException e) {
+            log.warn("Ignoring malformed order status message: {}",
+                    new String(message.getBody(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @PostConstruct
+    void startHeartbeats() {
+        heartbeats = taskScheduler.scheduleWithFixedDelay(this::heartbeat, properties.getHeartbeatInterval());
+    }
+
+    public void heartbeat() {
+        subscribers.values().forEach(orderSubscribers -> orderSubscribers.forEach(subscriber ->
+                senders.execute(() -> subscriber.heartbeat())));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (heartbeats != null) {
+            heartbeats.cancel(false);
+        }
+        subscribers.values().forEach(orderSubscribers -> orderSubscribers.forEach(s -> s.emitter().complete()));
+        senders.shutdown();
+    }
+
+    private void publish(OrderStatusEvent event) {
+        try {
+            redisTemplate.convertAndSend(properties.getChannel(), writer.writeValueAsString(event));
+        } catch (Exception e) {
+            // Subscribers on this instance still get it; others see it on reconnect
+            log.warn("Failed to publish status of order {} to Redis: {}", event.orderId(), e.getMessage());
+            fanOut(event);
+        }
+    }
+
+    private void fanOut(OrderStatusEvent event) {
+        Set<Subscriber> orderSubscribers = subscribers.get(event.orderId());
+        if (orderSubscribers == null) {
+            return;
+        }
+        orderSubscribers.forEach(subscriber -> senders.execute(() -> deliver(subscriber, event)));
+    }
+
+    private void deliver(Subscriber subscriber, OrderStatusEvent event) {
+        if (subscriber.send(event, writer) && FINAL_STATUSES.contains(event.status())) {
+            subscriber.emitter().complete();
+        }
+    }
+
+    private void unsubscribe(Long orderId, Subscriber subscriber) {
+        subscribers.computeIfPresent(orderId, (id, orderSubscribers) -> {
+            orderSubscribers.remove(subscriber);
+            return orderSubscribers.isEmpty() ? null : orderSubscribers;
+        });
+    }
+
+    /**
+     * One open stream. Sends are serialized per subscriber, and a status that
+     * is not newer than the last one the client has is not sent.
+     */
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final ReentrantLock lock = new ReentrantLock();
+        // Latest status the client has, null if none or an unknown Last-Event-ID
+        private OrderStatus lastSent;
+
+        Subscriber(SseEmitter emitter, String lastEventId) {
+            this.emitter = emitter;
+            this.lastSent = parseStatus(lastEventId);
+        }
+
+        SseEmitter emitter() {
+            return emitter;
+        }
+
+        /**
+         * @return true if the client has the status or a later one now, sent by
+         * this call or earlier
+         */
+        boolean send(OrderStatusEvent event, ObjectWriter writer) {
+            lock.lock();
+            try {
+                if (lastSent != null && event.status().ordinal() <= lastSent.ordinal()) {
+                    return true;
+                }
+                emitter.send(SseEmitter.event()
+                        .id(event.status().name())
+                        .name("status")
+                        .data(writer.writeValueAsString(event), MediaType.APPLICATION_JSON));
+                lastSent = event.status();
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                // Client went away; completing triggers the onCompletion cleanup
+                emitter.completeWithError(e);
+                return false;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private static OrderStatus parseStatus(String eventId) {
+            if (eventId == null) {
+                return null;
+            }
+            try {
+                return OrderStatus.valueOf(eventId);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+
+        void heartbeat() {
+            lock.lock();
+            try {
+                emitter.send(SseEmitter.event().comment("keep-alive"));
+            } catch (IOException | IllegalStateException e) {
+                emitter.completeWithError(e);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
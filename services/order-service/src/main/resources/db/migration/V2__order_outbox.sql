@@ -0,0 +1,19 @@
+-- Transactional outbox: events are written in the order's transaction and published by the relay
+CREATE TABLE outbox_event (
+    id BIGSERIAL PRIMARY KEY,
+    aggregate_id VARCHAR(255) NOT NULL,
+    aggregate_type VARCHAR(100) NOT NULL,
+    event_type VARCHAR(100) NOT NULL,
+    payload TEXT NOT NULL,
+    status VARCHAR(50) NOT NULL DEFAULT 'PENDING',
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    processed_at TIMESTAMP,
+    retry_count INTEGER NOT NULL DEFAULT 0,
+    last_attempt_at TIMESTAMP,
+    locked_by VARCHAR(64),
+    locked_until TIMESTAMP
+);
+
+-- Only PENDING/FAILED rows are ever claimed, so keep PUBLISHED and DEAD rows out of the index
+CREATE INDEX idx_outbox_claimable ON outbox_event(status, created_at)
+    WHERE status IN ('PENDING', 'FAILED');
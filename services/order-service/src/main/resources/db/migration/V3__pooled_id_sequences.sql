@@ -0,0 +1,7 @@
+-- Hibernate allocates IDs from pooled sequences (allocationSize = 50) instead of IDENTITY,
+-- so inserts of an order, its items and its outbox event can be JDBC-batched.
+-- The BIGSERIAL sequences are reused; only their increment changes, so values
+-- already handed out are never reissued.
+ALTER SEQUENCE orders_id_seq INCREMENT BY 50;
+ALTER SEQUENCE order_items_id_seq INCREMENT BY 50;
+ALTER SEQUENCE outbox_event_id_seq INCREMENT BY 50;
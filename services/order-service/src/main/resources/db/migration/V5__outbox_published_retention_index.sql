@@ -0,0 +1,3 @@
+-- Retention job deletes PUBLISHED events by age; keep the lookup off the whole table
+CREATE INDEX idx_outbox_published ON outbox_event(processed_at)
+    WHERE status = 'PUBLISHED';
@@ -0,0 +1,89 @@
+package com.pizzaflow.order.config;
+
+import com.pizzaflow.order.domain.OrderEvent;
+import com.pizzaflow.order.domain.OrderStatus;
+import com.pizzaflow.order.domain.OrderTransitionTable;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.statemachine.StateMachine;
+import org.springframework.statemachine.StateMachineEventResult;
+import org.springframework.statemachine.config.StateMachineFactory;
+import org.springframework.statemachine.support.DefaultStateMachineContext;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import reactor.core.publisher.Mono;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The compiled transition table must answer every (status, event) pair
+ * exactly like a state machine built from the same configuration.
+ */
+@SpringJUnitConfig(OrderStateMachineConfig.class)
+class OrderStateMachineConfigTest {
+
+    @Autowired
+    private StateMachineFactory<OrderStatus, OrderEvent> stateMachineFactory;
+
+    @Autowired
+    private OrderTransitionTable orderTransitionTable;
+
+    @Test
+    void tableMatchesStateMachineForEveryStatusAndEvent() {
+        int accepted = 0;
+        for (OrderStatus status : OrderStatus.values()) {
+            for (OrderEvent event : OrderEvent.values()) {
+                OrderStatus expected = fire(status, event);
+
+                assertThat(orderTransitionTable.next(status, event))
+                        .as("%s --%s-->", status, event)
+                        .isEqualTo(expected);
+                assertThat(orderTransitionTable.accepts(status, event)).isEqualTo(expected != null);
+                if (expected != null) {
+                    accepted++;
+                }
+            }
+        }
+        // Guards against a state machine that silently accepts nothing
+        assertThat(accepted).isEqualTo(8);
+    }
+
+    @Test
+    void transitionsOnlyMoveForwardInDeclarationOrder() {
+        // OrderStatusStream drops events whose status is not after the last one sent
+        for (OrderStatus status : OrderStatus.values()) {
+            for (OrderEvent event : OrderEvent.values()) {
+                OrderStatus target = orderTransitionTable.next(status, event);
+                if (target != null) {
+                    assertThat(target.ordinal())
+                            .as("%s --%s--> %s", status, event, target)
+                            .isGreaterThan(status.ordinal());
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the state the machine moves to, or null if it denies the event
+     */
+    private OrderStatus fire(OrderStatus status, OrderEvent event) {
+        StateMachine<OrderStatus, OrderEvent> sm = stateMachineFactory.getStateMachine();
+        sm.stopReactively().block();
+        sm.getStateMachineAccessor()
+                .doWithAllRegions(sma -> sma.resetStateMachineReactively(
+                                new DefaultStateMachineContext<>(status, null, null, null))
+                        .block());
+        sm.startReactively().block();
+
+        StateMachineEventResult<OrderStatus, OrderEvent> result = sm
+                .sendEvent(Mono.just(MessageBuilder.withPayload(event).build()))
+                .blockLast();
+        try {
+            return result != null && result.getResultType() == StateMachineEventResult.ResultType.ACCEPTED
+                    ? sm.getState().getId()
+                    : null;
+        } finally {
+            sm.stopReactively().block();
+        }
+    }
+}
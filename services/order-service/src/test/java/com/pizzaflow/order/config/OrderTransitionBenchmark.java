@@ -0,0 +1,95 @@
+package com.pizzaflow.order.config;
+
+import com.pizzaflow.order.domain.OrderEvent;
+import com.pizzaflow.order.domain.OrderStatus;
+import com.pizzaflow.order.domain.OrderTransitionTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.statemachine.StateMachine;
+import org.springframework.statemachine.StateMachineEventResult;
+import org.springframework.statemachine.config.StateMachineFactory;
+import org.springframework.statemachine.support.DefaultStateMachineContext;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one order transition (PAID --KITCHEN_ACCEPTED--> PREPARING) through
+ * the compiled {@link OrderTransitionTable} against the per-event state
+ * machine rebuild it replaced in OrderService.sendEvent: get a machine from
+ * the factory, stop, reset to the order's status, start and send the event.
+ * Run {@link #main} from the test classpath, e.g.
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.pizzaflow.order.config.OrderTransitionBenchmark};
+ * the GC profiler reports the bytes allocated per transition.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderTransitionBenchmark {
+
+    private AnnotationConfigApplicationContext context;
+    private StateMachineFactory<OrderStatus, OrderEvent> stateMachineFactory;
+    private OrderTransitionTable orderTransitionTable;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        context = new AnnotationConfigApplicationContext(OrderStateMachineConfig.class);
+        stateMachineFactory = context.getBean(StateMachineFactory.class);
+        orderTransitionTable = context.getBean(OrderTransitionTable.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public OrderStatus transitionTable() {
+        return orderTransitionTable.next(OrderStatus.PAID, OrderEvent.KITCHEN_ACCEPTED);
+    }
+
+    @Benchmark
+    public OrderStatus stateMachineRebuild() {
+        StateMachine<OrderStatus, OrderEvent> sm = stateMachineFactory.getStateMachine();
+        sm.stopReactively().block();
+        sm.getStateMachineAccessor()
+                .doWithAllRegions(sma -> sma.resetStateMachineReactively(
+                                new DefaultStateMachineContext<>(OrderStatus.PAID, null, null, null))
+                        .block());
+        sm.startReactively().block();
+
+        StateMachineEventResult<OrderStatus, OrderEvent> result = sm
+                .sendEvent(Mono.just(MessageBuilder.withPayload(OrderEvent.KITCHEN_ACCEPTED).build()))
+                .blockLast();
+        return result != null && result.getResultType() == StateMachineEventResult.ResultType.ACCEPTED
+                ? sm.getState().getId()
+                : null;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(OrderTransitionBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,51 @@
+package com.pizzaflow.order.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.pizzaflow.order.domain.OrderStatus;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * OrderView is what the endpoints return and what the Redis read model
+ * stores: it must serialize to the response fields only and read back
+ * unchanged through the Blackbird-enabled mapper.
+ */
+class OrderViewJsonTest {
+
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .addModule(new BlackbirdModule())
+            .build();
+
+    private final OrderView view = new OrderView(11L, 7L, OrderStatus.PAID, new BigDecimal("24.00"),
+            List.of(new OrderView.Item(21L, "MARGHERITA", 2, new BigDecimal("12.00"))),
+            LocalDateTime.of(2026, 10, 1, 12, 30), LocalDateTime.of(2026, 10, 1, 12, 35));
+
+    @Test
+    void serializesResponseFieldsOnly() throws Exception {
+        JsonNode json = objectMapper.readTree(objectMapper.writerFor(OrderView.class).writeValueAsString(view));
+
+        assertThat(json.fieldNames()).toIterable().containsExactlyInAnyOrder(
+                "id", "customerId", "status", "totalAmount", "items", "createdAt", "updatedAt");
+        assertThat(json.get("items").get(0).fieldNames()).toIterable().containsExactlyInAnyOrder(
+                "id", "productId", "quantity", "unitPrice");
+    }
+
+    @Test
+    void roundTripsThroughTheBoundReaderAndWriter() throws Exception {
+        String json = objectMapper.writerFor(OrderView.class).writeValueAsString(view);
+
+        OrderView read = objectMapper.readerFor(OrderView.class).readValue(json);
+
+        assertThat(read).isEqualTo(view);
+    }
+}
@@ -0,0 +1,104 @@
+package com.pizzaflow.order.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.pizzaflow.order.domain.Order;
+import com.pizzaflow.order.domain.OrderItem;
+import com.pizzaflow.order.support.TestOrders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of one 10-item order response. The view is written through
+ * the bound OrderView writer of the Blackbird-enabled mapper, as the read
+ * model and the endpoints do. The baseline is the JPA entity written by a
+ * plain mapper, as OrderController did before; the back reference of the
+ * items is ignored there, otherwise the entity cannot be written at all.
+ * Response sizes of both are logged at setup.
+ * Run {@link #main} from the test classpath, e.g.
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.pizzaflow.order.dto.OrderViewSerializationBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderViewSerializationBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderViewSerializationBenchmark.class);
+
+    private ObjectWriter viewWriter;
+    private ObjectMapper entityMapper;
+    private Order order;
+    private OrderView view;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        viewWriter = JsonMapper.builder()
+                .addModule(new JavaTimeModule())
+                .addModule(new BlackbirdModule())
+                .build()
+                .writerFor(OrderView.class);
+        entityMapper = JsonMapper.builder()
+                .addModule(new JavaTimeModule())
+                .addMixIn(OrderItem.class, IgnoreOrderReference.class)
+                .build();
+
+        order = TestOrders.order(7L, 10);
+        order.setId(11L);
+        order.setCreatedAt(LocalDateTime.of(2026, 10, 1, 12, 30));
+        order.setUpdatedAt(LocalDateTime.of(2026, 10, 1, 12, 35));
+        for (int i = 0; i < order.getItems().size(); i++) {
+            order.getItems().get(i).setId(100L + i);
+        }
+        view = OrderView.from(order);
+
+        log.info("Response size: OrderView {} bytes, Order entity {} bytes",
+                viewWriter.writeValueAsBytes(view).length, entityMapper.writeValueAsBytes(order).length);
+    }
+
+    @Benchmark
+    public byte[] orderView() throws JsonProcessingException {
+        return viewWriter.writeValueAsBytes(view);
+    }
+
+    @Benchmark
+    public byte[] orderEntity() throws JsonProcessingException {
+        return entityMapper.writeValueAsBytes(order);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(OrderViewSerializationBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+
+    @JsonIgnoreProperties("order")
+    private abstract static class IgnoreOrderReference {
+    }
+}
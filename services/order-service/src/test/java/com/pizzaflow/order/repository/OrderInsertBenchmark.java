@@ -0,0 +1,133 @@
+package com.pizzaflow.order.repository;
+
+import com.pizzaflow.order.domain.Order;
+import com.pizzaflow.order.support.TestOrders;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.redis.RedisRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.kafka.KafkaAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Create-order throughput and statements per order against Postgres
+ * (Testcontainers), saving 10-item orders through {@link OrderRepository}
+ * with the test application.yml settings. batchSize 50 is the configured
+ * Hibernate insert batching; batchSize 1 turns batching off and sends one
+ * INSERT per row, which is the round-trip count IDENTITY keys forced.
+ * Statements per order are logged after every iteration.
+ * Run {@link #main} from the test classpath, e.g.
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.pizzaflow.order.repository.OrderInsertBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderInsertBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderInsertBenchmark.class);
+
+    private static final int ITEMS_PER_ORDER = 10;
+
+    @Param({"1", "50"})
+    public int batchSize;
+
+    private PostgreSQLContainer<?> postgres;
+    private ConfigurableApplicationContext context;
+    private OrderRepository orderRepository;
+    private Statistics statistics;
+
+    @Setup
+    public void startDatabase() {
+        postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+        postgres.start();
+        context = new SpringApplicationBuilder(BenchmarkConfig.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        // Same driver option as the production URL
+                        "spring.datasource.url=" + postgres.getJdbcUrl()
+                                + (postgres.getJdbcUrl().contains("?") ? "&" : "?") + "reWriteBatchedInserts=true",
+                        "spring.datasource.username=" + postgres.getUsername(),
+                        "spring.datasource.password=" + postgres.getPassword(),
+                        "spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize)
+                .run();
+        orderRepository = context.getBean(OrderRepository.class);
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @TearDown
+    public void stopDatabase() {
+        context.close();
+        postgres.stop();
+    }
+
+    @Setup(Level.Iteration)
+    public void clearStatistics() {
+        statistics.clear();
+    }
+
+    @TearDown(Level.Iteration)
+    public void logStatementsPerOrder() {
+        long orders = statistics.getEntityInsertCount() / (ITEMS_PER_ORDER + 1);
+        if (orders > 0) {
+            log.info("batchSize {}: {} orders, {} statements per order", batchSize, orders,
+                    String.format("%.2f", (double) statistics.getPrepareStatementCount() / orders));
+        }
+    }
+
+    @Benchmark
+    public Order createOrder() {
+        return orderRepository.save(TestOrders.order(1L, ITEMS_PER_ORDER));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(OrderInsertBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    /**
+     * The order persistence slice of the application: JPA, Flyway and the
+     * repositories, without Kafka, Redis and the web layer.
+     */
+    @SpringBootConfiguration
+    @EnableAutoConfiguration(exclude = {KafkaAutoConfiguration.class, RedisAutoConfiguration.class,
+            RedisRepositoriesAutoConfiguration.class})
+    @EntityScan(basePackageClasses = Order.class)
+    @EnableJpaRepositories(basePackageClasses = OrderRepository.class)
+    @EnableJpaAuditing
+    static class BenchmarkConfig {
+    }
+}
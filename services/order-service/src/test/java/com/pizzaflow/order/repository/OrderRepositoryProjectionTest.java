@@ -0,0 +1,71 @@
+package com.pizzaflow.order.repository;
+
+import com.pizzaflow.order.domain.Order;
+import com.pizzaflow.order.dto.OrderView;
+import com.pizzaflow.order.support.PostgresTestSupport;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static com.pizzaflow.order.support.TestOrders.order;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Column projections of the order read paths: they must assemble the same
+ * view as the entity and page through a customer's history without gaps.
+ */
+class OrderRepositoryProjectionTest extends PostgresTestSupport {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Test
+    void projectionsBuildTheSameViewAsTheEntity() {
+        Order first = orderRepository.save(order(7L, 3));
+        Order second = orderRepository.save(order(7L, 1));
+        List<Long> ids = List.of(first.getId(), second.getId());
+
+        List<OrderRow> rows = orderRepository.findRowsByIdIn(ids);
+        Map<Long, List<OrderItemRow>> items = orderRepository.findItemRowsByOrderIdIn(ids).stream()
+                .collect(Collectors.groupingBy(OrderItemRow::orderId));
+
+        assertThat(rows).hasSize(2);
+        for (OrderRow row : rows) {
+            Order entity = row.id().equals(first.getId()) ? first : second;
+            OrderView fromRows = OrderView.from(row, items.get(row.id()));
+            OrderView fromEntity = OrderView.from(entity);
+
+            // Postgres keeps microseconds, so timestamps are compared separately
+            assertThat(fromRows).usingRecursiveComparison()
+                    .ignoringFields("createdAt", "updatedAt")
+                    .withComparatorForType(BigDecimal::compareTo, BigDecimal.class)
+                    .isEqualTo(fromEntity);
+            assertThat(fromRows.createdAt()).isNotNull();
+        }
+    }
+
+    @Test
+    void keysetPagesCoverTheHistoryNewestFirst() {
+        List<Long> created = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            created.add(orderRepository.save(order(9L, 1)).getId());
+        }
+        orderRepository.save(order(10L, 1));
+
+        List<OrderKey> firstPage = orderRepository.findFirstKeys(9L, 3);
+        OrderKey last = firstPage.get(firstPage.size() - 1);
+        List<OrderKey> secondPage = orderRepository.findKeysAfter(9L, last.getCreatedAt(), last.getId(), 3);
+
+        List<Long> paged = new ArrayList<>();
+        firstPage.forEach(key -> paged.add(key.getId()));
+        secondPage.forEach(key -> paged.add(key.getId()));
+        assertThat(firstPage).hasSize(3);
+        assertThat(secondPage).hasSize(2);
+        assertThat(paged).containsExactlyElementsOf(created.reversed());
+    }
+}
@@ -0,0 +1,97 @@
+package com.pizzaflow.order.service;
+
+import com.pizzaflow.order.domain.Order;
+import com.pizzaflow.order.domain.OrderTransitionTable;
+import com.pizzaflow.order.dto.BatchCreateOrderResponse;
+import com.pizzaflow.order.dto.BatchOrderResult;
+import com.pizzaflow.order.dto.CreateOrderRequest;
+import com.pizzaflow.order.dto.OrderItemDto;
+import com.pizzaflow.order.producer.OrderEventPublisher;
+import com.pizzaflow.order.readmodel.OrderReadModel;
+import com.pizzaflow.order.repository.OrderRepository;
+import com.pizzaflow.order.stream.OrderStatusStream;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Bulk order creation: an invalid order is reported as REJECTED and never
+ * fails the valid orders of the same batch.
+ */
+class OrderServiceBatchTest {
+
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final AtomicLong ids = new AtomicLong();
+    private OrderService orderService;
+
+    @BeforeEach
+    void setUp() {
+        when(orderRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Order> orders = invocation.getArgument(0);
+            orders.forEach(order -> order.setId(ids.incrementAndGet()));
+            return new ArrayList<>(orders);
+        });
+        orderService = new OrderService(orderRepository, mock(OrderEventPublisher.class),
+                OrderTransitionTable.builder().build(), Validation.buildDefaultValidatorFactory().getValidator(),
+                mock(OrderReadModel.class), mock(OrderStatusStream.class));
+    }
+
+    @Test
+    void missingQuantityOrPriceRejectsOnlyThatOrder() {
+        BatchCreateOrderResponse response = orderService.createOrders(List.of(
+                order(item("MARGHERITA", 2, "9.50")),
+                order(item("PEPPERONI", null, "11.00")),
+                order(item("HAWAII", 1, null)),
+                order((OrderItemDto) null)));
+
+        assertThat(response.getCreated()).isEqualTo(1);
+        assertThat(response.getRejected()).isEqualTo(3);
+        assertThat(response.getResults()).extracting(BatchOrderResult::getStatus).containsExactly(
+                BatchOrderResult.Status.CREATED, BatchOrderResult.Status.REJECTED,
+                BatchOrderResult.Status.REJECTED, BatchOrderResult.Status.REJECTED);
+        assertThat(response.getResults().get(1).getErrors()).containsEntry("items[0].quantity", "Quantity is required");
+        assertThat(response.getResults().get(2).getErrors()).containsEntry("items[0].unitPrice", "Unit price is required");
+        assertThat(response.getResults().get(3).getErrors()).containsKey("items[0].<list element>");
+    }
+
+    @Test
+    void ordersExceedingColumnLimitsAreRejectedIndividually() {
+        BatchCreateOrderResponse response = orderService.createOrders(List.of(
+                order(item("X".repeat(51), 1, "9.50")),
+                order(item("MARGHERITA", 1000, "99999.99"), item("PEPPERONI", 1000, "99999.99")),
+                order(item("MARGHERITA", 1, "9.999")),
+                order(item("MARGHERITA", 1, "9.50"))));
+
+        assertThat(response.getCreated()).isEqualTo(1);
+        assertThat(response.getResults().get(0).getErrors()).containsKey("items[0].productId");
+        assertThat(response.getResults().get(1).getErrors()).containsKey("totalWithinLimit");
+        assertThat(response.getResults().get(2).getErrors()).containsKey("items[0].unitPrice");
+        assertThat(response.getResults().get(3).getStatus()).isEqualTo(BatchOrderResult.Status.CREATED);
+    }
+
+    private CreateOrderRequest order(OrderItemDto... items) {
+        CreateOrderRequest request = new CreateOrderRequest();
+        request.setCustomerId(42L);
+        request.setItems(Arrays.asList(items));
+        return request;
+    }
+
+    private OrderItemDto item(String productId, Integer quantity, String unitPrice) {
+        OrderItemDto item = new OrderItemDto();
+        item.setProductId(productId);
+        item.setQuantity(quantity);
+        item.setUnitPrice(unitPrice == null ? null : new BigDecimal(unitPrice));
+        return item;
+    }
+}
@@ -0,0 +1,38 @@
+package com.pizzaflow.order.support;
+
+import com.pizzaflow.order.domain.Order;
+import com.pizzaflow.order.domain.OrderItem;
+import com.pizzaflow.order.domain.OrderStatus;
+
+import java.math.BigDecimal;
+
+/**
+ * Order fixtures shared by tests and benchmarks.
+ */
+public final class TestOrders {
+
+    private TestOrders() {
+    }
+
+    /**
+     * A new PENDING order with itemCount distinct pizzas at 12.00; item i is
+     * ordered i + 1 times, so the items do not all look alike.
+     */
+    public static Order order(Long customerId, int itemCount) {
+        BigDecimal unitPrice = new BigDecimal("12.00");
+        Order order = Order.builder()
+                .customerId(customerId)
+                .status(OrderStatus.PENDING)
+                .totalAmount(unitPrice.multiply(BigDecimal.valueOf((long) itemCount * (itemCount + 1) / 2)))
+                .build();
+        for (int i = 0; i < itemCount; i++) {
+            order.getItems().add(OrderItem.builder()
+                    .order(order)
+                    .productId("PIZZA-" + i)
+                    .quantity(i + 1)
+                    .unitPrice(unitPrice)
+                    .build());
+        }
+        return order;
+    }
+}